@@ -0,0 +1,105 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.resource.Serializer;
+
+/**
+ * {@link CallbackContext} round trips through the wrapper's {@link Serializer}, which streams them
+ * with {@link CallbackContextCodec}, against a mapper configured like the wrapper's that binds the
+ * class as a plain bean, under its full property names. The round trip is measured once warmed up, as on every callback, and as the
+ * first call in a fresh JVM, where bean binding pays for introspecting the class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallbackContextCodecBenchmark {
+
+    private static final TypeReference<CallbackContext> CALLBACK_CONTEXT_TYPE = new TypeReference<CallbackContext>() { };
+
+    private final Serializer serializer = new Serializer();
+    private final ObjectMapper beanBinding = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .setAnnotationIntrospector(new JacksonAnnotationIntrospector() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public Object findSerializer(final Annotated annotated) {
+                    return null;
+                }
+
+                @Override
+                public Object findDeserializer(final Annotated annotated) {
+                    return null;
+                }
+            });
+
+    private CallbackContext callbackContext;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        callbackContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("3f1c2a8e-2d4b-4c6f-9a7e-1b2c3d4e5f60")
+                .phaseStartedAt(System.currentTimeMillis())
+                .attempts(2)
+                .polls(9)
+                .build();
+        // both mappers are built and have (de)serialized something, as in a wrapper that is
+        // about to hand over its first callback context
+        serializer.deserialize(serializer.serialize("warm"), new TypeReference<String>() { });
+        beanBinding.readValue(beanBinding.writeValueAsString("warm"), String.class);
+    }
+
+    @Benchmark
+    public CallbackContext streaming() throws IOException {
+        return serializer.deserialize(serializer.serialize(callbackContext), CALLBACK_CONTEXT_TYPE);
+    }
+
+    @Benchmark
+    public CallbackContext beanBinding() throws IOException {
+        return beanBinding.readValue(beanBinding.writeValueAsString(callbackContext), CallbackContext.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public CallbackContext firstStreaming() throws IOException {
+        return streaming();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(20)
+    public CallbackContext firstBeanBinding() throws IOException {
+        return beanBinding();
+    }
+}
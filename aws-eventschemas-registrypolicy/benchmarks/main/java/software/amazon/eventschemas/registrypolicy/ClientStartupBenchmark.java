@@ -0,0 +1,52 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.services.schemas.SchemasClient;
+
+/**
+ * Cold start cost of creating the handlers the way HandlerWrapper does. Every measurement runs
+ * in a fresh JVM, so class loading and client construction are included.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = "-Daws.region=us-east-1")
+public class ClientStartupBenchmark {
+
+    /**
+     * Current behaviour: four handlers, one client built lazily on first use.
+     */
+    @Benchmark
+    public void sharedClient(Blackhole blackhole) {
+        blackhole.consume(new CreateHandler());
+        blackhole.consume(new ReadHandler());
+        blackhole.consume(new UpdateHandler());
+        blackhole.consume(new DeleteHandler());
+        blackhole.consume(ClientBuilder.getSchemasClient());
+    }
+
+    /**
+     * Previous behaviour: every handler built its own client when it was constructed.
+     */
+    @Benchmark
+    public void clientPerHandler(Blackhole blackhole) {
+        blackhole.consume(new CreateHandler());
+        blackhole.consume(new ReadHandler());
+        blackhole.consume(new UpdateHandler());
+        blackhole.consume(new DeleteHandler());
+        for (int i = 0; i < 4; i++) {
+            final SchemasClient client = ClientBuilder.buildSchemasClient(System::getenv);
+            blackhole.consume(client);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.HandlerRequest;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
+
+/**
+ * Latency of the first create in a fresh JVM, with and without {@link Primer} having run in the
+ * setup, and the time priming itself takes. The create goes through the same request
+ * deserialization and response serialization as the wrapper, against the simulator, so priming
+ * only helps with what the two share; the SDK classes loaded by marshalling real requests count
+ * towards priming but not towards the simulated create.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgsAppend = "-Daws.region=us-east-1")
+public class ColdStartBenchmark {
+
+    private static final String REGISTRY_NAME = "benchmark-registry";
+    private static final TypeReference<HandlerRequest<ResourceModel, CallbackContext>> REQUEST_TYPE =
+            new TypeReference<HandlerRequest<ResourceModel, CallbackContext>>() { };
+
+    @State(Scope.Thread)
+    public static class Simulated {
+
+        private String request;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            LocalProxy.install(SchemasSimulator.builder().build()).createRegistry(REGISTRY_NAME);
+            request = "{\"action\":\"CREATE\",\"awsAccountId\":\"123456789012\",\"region\":\"us-east-1\","
+                    + "\"resourceType\":\"" + ResourceModel.TYPE_NAME + "\",\"requestData\":{"
+                    + "\"logicalResourceId\":\"Registry\",\"resourceProperties\":{\"RegistryName\":\"" + REGISTRY_NAME + "\","
+                    + "\"Policy\":" + PolicyCodec.write(PolicyDocuments.policy(PolicyDocuments.Size.TYPICAL)) + "}}}";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Primed {
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Primer.prime();
+        }
+    }
+
+    @Benchmark
+    public String firstCreate(Simulated simulated) throws IOException {
+        return create(simulated.request);
+    }
+
+    @Benchmark
+    public String primedFirstCreate(Primed primed, Simulated simulated) throws IOException {
+        return create(simulated.request);
+    }
+
+    /**
+     * Priming alone, the cost moved from the first invocation to the init phase.
+     */
+    @Benchmark
+    public List<String> priming() {
+        return Primer.prime();
+    }
+
+    private static String create(String request) throws IOException {
+        final Serializer serializer = new Serializer();
+        final HandlerRequest<ResourceModel, CallbackContext> handlerRequest = serializer.deserialize(request, REQUEST_TYPE);
+        final ProgressEvent<ResourceModel, CallbackContext> event = new CreateHandler().handleRequest(
+                LocalProxy.proxy(),
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .desiredResourceState(handlerRequest.getRequestData().getResourceProperties())
+                        .build(),
+                null,
+                message -> { });
+        return serializer.serialize(event);
+    }
+}
@@ -0,0 +1,108 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Create and Update in each {@link ExecutionMode}, against a simulator that adds a fixed latency
+ * to every call. In ASYNC mode the policy is digested while the put of a create is in flight, and
+ * serialized while an update reads the current policy, so the difference grows with the policy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Daws.region=us-east-1")
+public class ExecutionModeBenchmark {
+
+    private static final String REGISTRY_NAME = "benchmark-registry";
+
+    @Param({"SYNC", "ASYNC"})
+    public String executionMode;
+
+    @Param({"TYPICAL", "NEAR_LIMIT"})
+    public PolicyDocuments.Size policySize;
+
+    @Param({"10"})
+    public long latencyMillis;
+
+    private final CreateHandler createHandler = new CreateHandler();
+    private final UpdateHandler updateHandler = new UpdateHandler();
+    private final Logger logger = message -> { };
+
+    private AmazonWebServicesClientProxy proxy;
+    private SchemasSimulator simulator;
+    private Map<String, Object> policy;
+    private Map<String, Object> updatedPolicy;
+    private boolean updateToggle;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        proxy = LocalProxy.proxy();
+        simulator = LocalProxy.install(SchemasSimulator.builder()
+                .latency(SchemasSimulator.Latency.fixed(latencyMillis))
+                .build());
+        ClientBuilder.setExecutionMode(ExecutionMode.valueOf(executionMode));
+        simulator.createRegistry(REGISTRY_NAME);
+        policy = PolicyDocuments.policy(policySize);
+        updatedPolicy = PolicyDocuments.policy(policySize, "-updated");
+        // the policy the updates start from
+        createHandler.handleRequest(proxy, request(ResourceModel.builder()
+                .registryName(REGISTRY_NAME)
+                .policy(policy)
+                .build()), null, logger);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ClientBuilder.setExecutionMode(null);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> create() {
+        simulator.deleteRegistry(REGISTRY_NAME);
+        simulator.createRegistry(REGISTRY_NAME);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName(REGISTRY_NAME)
+                .policy(policy)
+                .build();
+        return createHandler.handleRequest(proxy, request(model), null, logger);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> update() {
+        // alternate between two documents so every call performs a real PutResourcePolicy
+        updateToggle = !updateToggle;
+        final ResourceModel model = ResourceModel.builder()
+                .id(REGISTRY_NAME)
+                .registryName(REGISTRY_NAME)
+                .policy(updateToggle ? updatedPolicy : policy)
+                .build();
+        return updateHandler.handleRequest(proxy, request(model), null, logger);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+    }
+}
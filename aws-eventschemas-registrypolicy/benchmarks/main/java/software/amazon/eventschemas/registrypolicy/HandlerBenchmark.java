@@ -0,0 +1,120 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Runs each handler end to end against a {@link SchemasSimulator} without latency or propagation
+ * delay, so only handler overhead is measured. Run with {@code -prof gc} to also report the
+ * allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Daws.region=us-east-1")
+public class HandlerBenchmark {
+
+    private static final String REGISTRY_NAME = "benchmark-registry";
+
+    @Param({"SMALL", "TYPICAL", "NEAR_LIMIT"})
+    public PolicyDocuments.Size policySize;
+
+    private final CreateHandler createHandler = new CreateHandler();
+    private final ReadHandler readHandler = new ReadHandler();
+    private final UpdateHandler updateHandler = new UpdateHandler();
+    private final DeleteHandler deleteHandler = new DeleteHandler();
+    private final Logger logger = message -> { };
+
+    private AmazonWebServicesClientProxy proxy;
+    private SchemasSimulator simulator;
+    private Map<String, Object> policy;
+    private Map<String, Object> updatedPolicy;
+    private String serializedPolicy;
+    private boolean updateToggle;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        proxy = LocalProxy.proxy();
+        simulator = LocalProxy.install(SchemasSimulator.builder().build());
+        simulator.createRegistry(REGISTRY_NAME);
+        policy = PolicyDocuments.policy(policySize);
+        updatedPolicy = PolicyDocuments.policy(policySize, "-updated");
+        serializedPolicy = new ObjectMapper().writeValueAsString(policy);
+        seedPolicy();
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> create() {
+        simulator.deleteRegistry(REGISTRY_NAME);
+        simulator.createRegistry(REGISTRY_NAME);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName(REGISTRY_NAME)
+                .policy(policy)
+                .build();
+        return createHandler.handleRequest(proxy, request(model), null, logger);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> read() {
+        final ResourceModel model = ResourceModel.builder()
+                .id(REGISTRY_NAME)
+                .build();
+        return readHandler.handleRequest(proxy, request(model), null, logger);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> update() {
+        // alternate between two documents so every call performs a real PutResourcePolicy
+        updateToggle = !updateToggle;
+        final ResourceModel model = ResourceModel.builder()
+                .id(REGISTRY_NAME)
+                .registryName(REGISTRY_NAME)
+                .policy(updateToggle ? updatedPolicy : policy)
+                .build();
+        return updateHandler.handleRequest(proxy, request(model), null, logger);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> delete() {
+        seedPolicy();
+        final ResourceModel model = ResourceModel.builder()
+                .id(REGISTRY_NAME)
+                .registryName(REGISTRY_NAME)
+                .build();
+        return deleteHandler.handleRequest(proxy, request(model), null, logger);
+    }
+
+    private void seedPolicy() {
+        simulator.putResourcePolicy(PutResourcePolicyRequest.builder()
+                .registryName(REGISTRY_NAME)
+                .policy(serializedPolicy)
+                .build());
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(ResourceModel model) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Latency of one ListHandler page (a ListRegistries call and a GetResourcePolicy per registry)
+ * against a simulator with a fixed latency per call, for different bounds on the policy fan-out.
+ * The handlers only fan out in ASYNC {@link ExecutionMode}, which the benchmark runs in.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Daws.region=us-east-1")
+public class ListBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1", "10", "25"})
+    public int maxConcurrentRequests;
+
+    @Param({"10"})
+    public long latencyMillis;
+
+    private final Logger logger = message -> { };
+    private final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder().build();
+
+    private AmazonWebServicesClientProxy proxy;
+    private ListHandler listHandler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        proxy = LocalProxy.proxy();
+        listHandler = new ListHandler(maxConcurrentRequests, Deadline::of);
+
+        final SchemasSimulator simulator = LocalProxy.install(SchemasSimulator.builder()
+                .listPageSize(PAGE_SIZE)
+                .latency(SchemasSimulator.Latency.fixed(latencyMillis))
+                .build());
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            final String registryName = "benchmark-registry-" + i;
+            simulator.createRegistry(registryName);
+            simulator.putResourcePolicy(PutResourcePolicyRequest.builder()
+                    .registryName(registryName)
+                    .policy("{\"Version\":\"2012-10-17\"}")
+                    .build());
+        }
+        ClientBuilder.setExecutionMode(ExecutionMode.ASYNC);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ClientBuilder.setExecutionMode(null);
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> listPage() {
+        return listHandler.handleRequest(proxy, request, null, logger);
+    }
+}
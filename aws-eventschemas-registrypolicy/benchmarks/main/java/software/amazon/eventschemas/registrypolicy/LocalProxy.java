@@ -0,0 +1,30 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+
+/**
+ * Builds the client proxy used by the benchmarks and plugs a {@link SchemasSimulator} into
+ * {@link ClientBuilder}, so handlers run unmodified against the simulated service. The shared rate
+ * limiter is lifted, as the benchmarks call far faster than any real deployment.
+ */
+final class LocalProxy {
+
+    private LocalProxy() {
+    }
+
+    static AmazonWebServicesClientProxy proxy() {
+        return new AmazonWebServicesClientProxy(
+                new LoggerProxy(),
+                new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+                () -> 15 * 60 * 1000L);
+    }
+
+    static SchemasSimulator install(SchemasSimulator simulator) {
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+        ClientBuilder.setRateLimiter(RateLimiter.unlimited());
+        return simulator;
+    }
+}
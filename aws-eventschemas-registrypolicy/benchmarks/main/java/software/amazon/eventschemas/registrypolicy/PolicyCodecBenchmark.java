@@ -0,0 +1,57 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Policy documents as returned by GetResourcePolicy, parsed the way ReadHandler used to
+ * (org.json) and with {@link PolicyCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyCodecBenchmark {
+
+    @Param({"SMALL", "TYPICAL", "NEAR_LIMIT"})
+    public PolicyDocuments.Size policySize;
+
+    private String policy;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        policy = PolicyCodec.write(PolicyDocuments.policy(policySize));
+    }
+
+    @Benchmark
+    public Map<String, Object> jsonObjectToMap() {
+        return new JSONObject(policy).toMap();
+    }
+
+    @Benchmark
+    public Map<String, Object> parse() throws IOException {
+        return PolicyCodec.parse(policy);
+    }
+
+    @Benchmark
+    public String parseAndWrite() throws IOException {
+        return PolicyCodec.write(PolicyCodec.parse(policy));
+    }
+}
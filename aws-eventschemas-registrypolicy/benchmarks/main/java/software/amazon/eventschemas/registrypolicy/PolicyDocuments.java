@@ -0,0 +1,83 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry policy documents of representative sizes.
+ */
+public final class PolicyDocuments {
+
+    public enum Size {
+        /** One statement with a single action. */
+        SMALL(1),
+        /** A handful of statements granting cross-account read access. */
+        TYPICAL(5),
+        /** Enough statements to bring the serialized document just under the 20 KB limit. */
+        NEAR_LIMIT(47);
+
+        private final int statements;
+
+        Size(int statements) {
+            this.statements = statements;
+        }
+    }
+
+    private PolicyDocuments() {
+    }
+
+    public static Map<String, Object> policy(Size size) {
+        return policy(size, "");
+    }
+
+    /**
+     * Returns a document of the given size. Different {@code variant}s produce different
+     * documents, which is useful to force a real update.
+     */
+    public static Map<String, Object> policy(Size size, String variant) {
+        return policy(size.statements, variant);
+    }
+
+    /**
+     * Returns a document of exactly {@code statementCount} statements, past the service's size
+     * limit for large counts.
+     */
+    public static Map<String, Object> policy(int statementCount, String variant) {
+        final List<Object> statements = new ArrayList<>(statementCount);
+        for (int i = 0; i < statementCount; i++) {
+            statements.add(statement(i, variant));
+        }
+        final Map<String, Object> policy = new HashMap<>();
+        policy.put("Version", "2012-10-17");
+        policy.put("Statement", statements);
+        return policy;
+    }
+
+    private static Map<String, Object> statement(int index, String variant) {
+        final String account = String.format("%012d", 100000000000L + index);
+        final Map<String, Object> statement = new HashMap<>();
+        statement.put("Sid", "Statement" + index + variant);
+        statement.put("Effect", "Allow");
+        statement.put("Principal", singletonMap("AWS", "arn:aws:iam::" + account + ":root"));
+        statement.put("Action", Arrays.asList(
+                "schemas:DescribeCodeBinding",
+                "schemas:DescribeRegistry",
+                "schemas:DescribeSchema",
+                "schemas:GetCodeBindingSource",
+                "schemas:ListSchemas",
+                "schemas:ListSchemaVersions"));
+        statement.put("Resource", Arrays.asList(
+                "arn:aws:schemas:us-east-1:123456789012:registry/benchmark-registry",
+                "arn:aws:schemas:us-east-1:123456789012:schema/benchmark-registry/*"));
+        return statement;
+    }
+
+    private static Map<String, Object> singletonMap(String key, Object value) {
+        final Map<String, Object> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+}
@@ -0,0 +1,53 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PolicyValidator} on documents of up to thousands of statements, far past the service's
+ * size limit, which is lifted so that every statement is checked. Serializing the document, the
+ * cheapest way to learn its size otherwise, is measured alongside.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyValidatorBenchmark {
+
+    @Param({"1", "60", "1000", "5000"})
+    public int statements;
+
+    private Map<String, Object> policy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        policy = PolicyDocuments.policy(statements, "");
+    }
+
+    @Benchmark
+    public Map<String, Object> validate() {
+        PolicyValidator.validate(policy, Long.MAX_VALUE);
+        return policy;
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        return PolicyCodec.write(policy).length();
+    }
+}
@@ -0,0 +1,106 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryRequest;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryResponse;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+/**
+ * Create pre-flight checks (DescribeRegistry and GetResourcePolicy) against a simulator that adds
+ * a fixed latency to every call: one after the other, as CreateHandler runs them in SYNC mode,
+ * concurrently on the async client, as in ASYNC mode, and concurrently with the registry found in
+ * the {@link RegistryCache}, as a warm container runs them in ASYNC mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Daws.region=us-east-1")
+public class PreflightBenchmark {
+
+    private static final String REGISTRY_NAME = "benchmark-registry";
+
+    @Param({"5", "20", "50"})
+    public long latencyMillis;
+
+    private AmazonWebServicesClientProxy proxy;
+    private DescribeRegistryRequest describeRegistryRequest;
+    private GetResourcePolicyRequest getResourcePolicyRequest;
+    private RegistryCache registryCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        proxy = LocalProxy.proxy();
+        LocalProxy.install(SchemasSimulator.builder()
+                .latency(SchemasSimulator.Latency.fixed(latencyMillis))
+                .build())
+                .createRegistry(REGISTRY_NAME);
+        describeRegistryRequest = DescribeRegistryRequest.builder().registryName(REGISTRY_NAME).build();
+        getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(REGISTRY_NAME).build();
+        registryCache = new RegistryCache(ClientBuilder.DEFAULT_REGISTRY_CACHE_TTL_MILLIS,
+                ClientBuilder.DEFAULT_REGISTRY_CACHE_SIZE, System::currentTimeMillis);
+    }
+
+    @Benchmark
+    public boolean sequential() {
+        proxy.injectCredentialsAndInvokeV2(describeRegistryRequest, ClientBuilder.getSchemasClient()::describeRegistry);
+        try {
+            proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, ClientBuilder.getSchemasClient()::getResourcePolicy);
+            return false;
+        } catch (NotFoundException e) {
+            return true;
+        }
+    }
+
+    @Benchmark
+    public boolean concurrent() {
+        final CompletableFuture<DescribeRegistryResponse> registry =
+                proxy.injectCredentialsAndInvokeV2Async(describeRegistryRequest, ClientBuilder.getSchemasAsyncClient()::describeRegistry);
+        final CompletableFuture<GetResourcePolicyResponse> policy =
+                proxy.injectCredentialsAndInvokeV2Async(getResourcePolicyRequest, ClientBuilder.getSchemasAsyncClient()::getResourcePolicy);
+        registry.join();
+        try {
+            policy.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof NotFoundException;
+        }
+    }
+
+    @Benchmark
+    public boolean cached() {
+        final CompletableFuture<DescribeRegistryResponse> registry = registryCache.contains(REGISTRY_NAME) ? null
+                : proxy.injectCredentialsAndInvokeV2Async(describeRegistryRequest, ClientBuilder.getSchemasAsyncClient()::describeRegistry);
+        final CompletableFuture<GetResourcePolicyResponse> policy =
+                proxy.injectCredentialsAndInvokeV2Async(getResourcePolicyRequest, ClientBuilder.getSchemasAsyncClient()::getResourcePolicy);
+        if (registry != null) {
+            registry.join();
+            registryCache.put(REGISTRY_NAME);
+        }
+        try {
+            policy.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof NotFoundException;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+/**
+ * Load test of a full create, re-invoking the handler the way CloudFormation would, against a
+ * simulator with a propagation delay and per-call latency. Besides the time per create, it
+ * reports how many invocations and GetResourcePolicy calls each create needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Daws.region=us-east-1")
+public class PropagationBenchmark {
+
+    private static final String REGISTRY_NAME = "benchmark-registry";
+
+    @Param({"0", "500", "2000"})
+    public long propagationDelayMillis;
+
+    @Param({"10"})
+    public long medianLatencyMillis;
+
+    private final CreateHandler createHandler = new CreateHandler();
+    private final Logger logger = message -> { };
+
+    private AmazonWebServicesClientProxy proxy;
+    private SchemasSimulator simulator;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long invocations;
+        public long getResourcePolicyCalls;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        proxy = LocalProxy.proxy();
+        simulator = LocalProxy.install(SchemasSimulator.builder()
+                .propagationDelayMillis(propagationDelayMillis)
+                .latency(SchemasSimulator.Latency.logNormal(medianLatencyMillis, 0.5))
+                .seed(42L)
+                .build());
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> create(Counters counters) {
+        simulator.deleteRegistry(REGISTRY_NAME);
+        simulator.createRegistry(REGISTRY_NAME);
+        final long getCallsBefore = simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY);
+
+        final ResourceModel model = ResourceModel.builder()
+                .registryName(REGISTRY_NAME)
+                .policy(PolicyDocuments.policy(PolicyDocuments.Size.SMALL))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        ProgressEvent<ResourceModel, CallbackContext> event = null;
+        CallbackContext context = null;
+        do {
+            // the callback delay itself is not simulated, only the extra invocation
+            counters.invocations++;
+            request.setDesiredResourceState(event == null ? model : event.getResourceModel());
+            event = createHandler.handleRequest(proxy, request, context, logger);
+            context = event.getCallbackContext();
+        } while (event.getStatus() == OperationStatus.IN_PROGRESS);
+
+        counters.getResourcePolicyCalls += simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY) - getCallsBefore;
+        return event;
+    }
+}
@@ -0,0 +1,69 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.cloudformation.resource.Serializer;
+
+/**
+ * JSON round trips of the objects the wrapper (de)serializes on every invocation, using the same
+ * {@link Serializer} as the wrapper.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final TypeReference<ResourceModel> RESOURCE_MODEL_TYPE = new TypeReference<ResourceModel>() { };
+    private static final TypeReference<CallbackContext> CALLBACK_CONTEXT_TYPE = new TypeReference<CallbackContext>() { };
+
+    @Param({"SMALL", "TYPICAL", "NEAR_LIMIT"})
+    public PolicyDocuments.Size policySize;
+
+    private final Serializer serializer = new Serializer();
+
+    private ResourceModel resourceModel;
+    private CallbackContext callbackContext;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        resourceModel = ResourceModel.builder()
+                .id("benchmark-registry")
+                .registryName("benchmark-registry")
+                .revisionId("3f1c2a8e-2d4b-4c6f-9a7e-1b2c3d4e5f60")
+                .policy(PolicyDocuments.policy(policySize))
+                .build();
+        callbackContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("3f1c2a8e-2d4b-4c6f-9a7e-1b2c3d4e5f60")
+                .phaseStartedAt(System.currentTimeMillis())
+                .attempts(2)
+                .build();
+    }
+
+    @Benchmark
+    public ResourceModel resourceModelRoundTrip() throws IOException {
+        return serializer.deserialize(serializer.serialize(resourceModel), RESOURCE_MODEL_TYPE);
+    }
+
+    @Benchmark
+    public CallbackContext callbackContextRoundTrip() throws IOException {
+        return serializer.deserialize(serializer.serialize(callbackContext), CALLBACK_CONTEXT_TYPE);
+    }
+}
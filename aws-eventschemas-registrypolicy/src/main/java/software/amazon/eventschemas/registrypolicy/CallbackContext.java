@@ -1,28 +1,81 @@
 package software.amazon.eventschemas.registrypolicy;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+/**
+ * Where a create, update or delete stands between invocations: the {@link Phase} to resume from,
+ * the last revision id written, when the phase started, how many invocations and
+ * stabilization polls it took so far, and the propagation latencies seen by the
+ * {@link PropagationEstimator}.
+ * The wrapper round-trips it on every callback, so it serializes with one-letter names and
+ * leaves out unset fields, e.g. {@code {"p":"STABILIZE","r":"3","t":1589000000000,"a":2}}.
+ * {@link CallbackContextCodec} streams that JSON, so the wrapper never introspects this class.
+ */
 @Data
 @Builder
-@JsonDeserialize(builder = CallbackContext.CallbackContextBuilder.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonSerialize(using = CallbackContextCodec.Serializer.class)
+@JsonDeserialize(using = CallbackContextCodec.Deserializer.class)
 public class CallbackContext {
-    private boolean registryPolicyCreated;
-    private boolean registryPolicyDeleted;
-    private boolean registryPolicyUpdated;
-    private boolean registryPolicyStabilized;
-    private int stabilizationRetriesRemaining;
-
-    @JsonPOJOBuilder(withPrefix = "")
-    public static class CallbackContextBuilder {
+
+    public enum Phase {
+        /** Create only: the registry must exist and have no policy yet. */
+        PREFLIGHT,
+        /** The policy is to be written, or deleted. */
+        WRITE,
+        /** The write went through, and reads are to observe it. */
+        STABILIZE,
+        DONE
+    }
+
+    private Phase phase;
+    private String revisionId;
+    private long phaseStartedAt;
+    private int attempts;
+    private int polls;
+
+    /** A {@link LatencyHistogram#snapshot()} of the propagation latencies of this operation. */
+    private int[] propagation;
+
+    /**
+     * Starts in the given phase at {@code now}, which is read from the clock the phase deadline
+     * is checked against, see {@link Stabilizer#now()}.
+     */
+    static CallbackContext start(Phase phase, long now) {
+        return CallbackContext.builder()
+                .phase(phase)
+                .phaseStartedAt(now)
+                .build();
+    }
+
+    public void advance(Phase next, long now) {
+        phase = next;
+        phaseStartedAt = now;
+    }
+
+    /**
+     * Counts one more invocation.
+     */
+    public void attempt() {
+        attempts++;
+    }
+
+    /**
+     * Counts the stabilization polls of one invocation, and returns the total so far.
+     */
+    public int polled(int count) {
+        polls += count;
+        return polls;
     }
 
-    @JsonIgnore
-    public void decrementStabilizationRetriesRemaining() {
-        stabilizationRetriesRemaining--;
+    public long phaseDeadline(long timeoutMillis) {
+        return phaseStartedAt + timeoutMillis;
     }
 }
@@ -0,0 +1,145 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes and reads {@link CallbackContext} with Jackson's streaming API. It is registered on the
+ * class itself, so the wrapper's mapper uses it without introspecting the bean, and it produces
+ * exactly the JSON bean binding would: one-letter names in declaration order, with unset fields
+ * left out. Like the wrapper's mapper, reading ignores unknown fields.
+ */
+final class CallbackContextCodec {
+
+    private static final String PHASE = "p";
+    private static final String REVISION_ID = "r";
+    private static final String PHASE_STARTED_AT = "t";
+    private static final String ATTEMPTS = "a";
+    private static final String POLLS = "n";
+    private static final String PROPAGATION = "h";
+
+    private CallbackContextCodec() {
+    }
+
+    static final class Serializer extends StdSerializer<CallbackContext> {
+        private static final long serialVersionUID = 1L;
+
+        Serializer() {
+            super(CallbackContext.class);
+        }
+
+        @Override
+        public void serialize(final CallbackContext context, final JsonGenerator generator, final SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            if (context.getPhase() != null) {
+                generator.writeStringField(PHASE, context.getPhase().name());
+            }
+            if (context.getRevisionId() != null) {
+                generator.writeStringField(REVISION_ID, context.getRevisionId());
+            }
+            if (context.getPhaseStartedAt() != 0L) {
+                generator.writeNumberField(PHASE_STARTED_AT, context.getPhaseStartedAt());
+            }
+            if (context.getAttempts() != 0) {
+                generator.writeNumberField(ATTEMPTS, context.getAttempts());
+            }
+            if (context.getPolls() != 0) {
+                generator.writeNumberField(POLLS, context.getPolls());
+            }
+            if (context.getPropagation() != null) {
+                generator.writeFieldName(PROPAGATION);
+                generator.writeArray(context.getPropagation(), 0, context.getPropagation().length);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    static final class Deserializer extends StdDeserializer<CallbackContext> {
+        private static final long serialVersionUID = 1L;
+
+        Deserializer() {
+            super(CallbackContext.class);
+        }
+
+        @Override
+        public CallbackContext deserialize(final JsonParser parser, final DeserializationContext deserializationContext)
+                throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+                return (CallbackContext) deserializationContext.handleUnexpectedToken(CallbackContext.class, parser);
+            }
+
+            final CallbackContext context = new CallbackContext();
+            for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                final String name = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                switch (name) {
+                    case PHASE:
+                        context.setPhase(readPhase(parser, deserializationContext));
+                        break;
+                    case REVISION_ID:
+                        context.setRevisionId(parser.getText());
+                        break;
+                    case PHASE_STARTED_AT:
+                        context.setPhaseStartedAt(parser.getValueAsLong());
+                        break;
+                    case ATTEMPTS:
+                        context.setAttempts(parser.getValueAsInt());
+                        break;
+                    case POLLS:
+                        context.setPolls(parser.getValueAsInt());
+                        break;
+                    case PROPAGATION:
+                        context.setPropagation(readInts(parser, deserializationContext));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return context;
+        }
+
+        private static CallbackContext.Phase readPhase(final JsonParser parser, final DeserializationContext deserializationContext)
+                throws IOException {
+            final String name = parser.getText();
+            for (CallbackContext.Phase phase : CallbackContext.Phase.values()) {
+                if (phase.name().equals(name)) {
+                    return phase;
+                }
+            }
+            return (CallbackContext.Phase) deserializationContext.handleWeirdStringValue(CallbackContext.Phase.class, name,
+                    "not one of %s", Arrays.toString(CallbackContext.Phase.values()));
+        }
+
+        private static int[] readInts(final JsonParser parser, final DeserializationContext deserializationContext)
+                throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                return (int[]) deserializationContext.handleUnexpectedToken(int[].class, parser);
+            }
+            int[] values = new int[8];
+            int length = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (length == values.length) {
+                    values = Arrays.copyOf(values, length * 2);
+                }
+                values[length++] = parser.getValueAsInt();
+            }
+            return Arrays.copyOf(values, length);
+        }
+    }
+}
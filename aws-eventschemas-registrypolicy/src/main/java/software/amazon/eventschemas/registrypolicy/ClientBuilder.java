@@ -1,13 +1,271 @@
 package software.amazon.eventschemas.registrypolicy;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedClientOption;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
 import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.cloudformation.LambdaWrapper;
 
+/**
+ * Holds the single {@link SchemasClient} (and {@link SchemasAsyncClient}) shared by every handler in
+ * the container. Clients are built on first use instead of when HandlerWrapper instantiates the
+ * handlers, so an invocation only pays for the client it actually needs.
+ *
+ * Neither client retries on its own: failed calls are retried by the handlers' {@link RetryPolicy},
+ * which sees every attempt, so that retries are counted and checked against the {@link Deadline}
+ * once rather than multiplied by the SDK's.
+ *
+ * Both clients can be tuned through the following environment variables:
+ * <ul>
+ *     <li>{@value #API_CALL_TIMEOUT_ENV}: overall timeout of an API call, in milliseconds</li>
+ *     <li>{@value #API_CALL_ATTEMPT_TIMEOUT_ENV}: timeout of a single HTTP attempt, in milliseconds</li>
+ *     <li>{@value #USER_AGENT_SUFFIX_ENV}: suffix appended to the SDK user agent</li>
+ * </ul>
+ * Each call's timeouts are further capped to what is left of the invocation, see {@link Deadline}.
+ *
+ * It also holds the {@link RateLimiter} shared by all handlers. {@value #RATE_LIMITS_ENV} sets its
+ * calls per second as a comma separated list of {@code Operation=rate}, e.g.
+ * {@code PutResourcePolicy=5,*=20}, where {@code *} applies to every other operation and a rate of
+ * 0 disables the limit. It defaults to {@value #DEFAULT_RATE_LIMITS}.
+ *
+ * Finally it holds the {@link RegistryCache} of registries known to exist, sized by
+ * {@value #REGISTRY_CACHE_TTL_ENV} (default {@value #DEFAULT_REGISTRY_CACHE_TTL_MILLIS}) and
+ * {@value #REGISTRY_CACHE_SIZE_ENV} (default {@value #DEFAULT_REGISTRY_CACHE_SIZE}); setting either
+ * to 0 disables it.
+ *
+ * {@value #EXECUTION_MODE_ENV} picks the {@link ExecutionMode} of the handlers, SYNC (the default)
+ * or ASYNC.
+ *
+ * The {@link PropagationEstimator} picks callback delays from the {@value #CALLBACK_DELAY_PERCENTILE_ENV}
+ * percentile (default {@value #DEFAULT_CALLBACK_DELAY_PERCENTILE}) of the propagation latencies seen
+ * so far; 0 keeps a fixed delay.
+ */
 public class ClientBuilder {
 
+    static final String API_CALL_TIMEOUT_ENV = "SCHEMAS_API_CALL_TIMEOUT_MILLIS";
+    static final String API_CALL_ATTEMPT_TIMEOUT_ENV = "SCHEMAS_API_CALL_ATTEMPT_TIMEOUT_MILLIS";
+    static final String USER_AGENT_SUFFIX_ENV = "SCHEMAS_USER_AGENT_SUFFIX";
+    static final String RATE_LIMITS_ENV = "SCHEMAS_RATE_LIMITS";
+    static final String DEFAULT_RATE_LIMITS = "*=50";
+    static final String REGISTRY_CACHE_TTL_ENV = "SCHEMAS_REGISTRY_CACHE_TTL_MILLIS";
+    static final String REGISTRY_CACHE_SIZE_ENV = "SCHEMAS_REGISTRY_CACHE_SIZE";
+    static final long DEFAULT_REGISTRY_CACHE_TTL_MILLIS = 60_000L;
+    static final int DEFAULT_REGISTRY_CACHE_SIZE = 1_000;
+    static final String EXECUTION_MODE_ENV = "SCHEMAS_EXECUTION_MODE";
+    static final String CALLBACK_DELAY_PERCENTILE_ENV = "SCHEMAS_CALLBACK_DELAY_PERCENTILE";
+    static final double DEFAULT_CALLBACK_DELAY_PERCENTILE = 90;
+
+    private static volatile ClientOverrideConfiguration overrideConfiguration;
+    private static volatile SchemasClient schemasClient;
+    private static volatile SchemasAsyncClient schemasAsyncClient;
+    private static volatile RateLimiter rateLimiter;
+    private static volatile RegistryCache registryCache;
+    private static volatile ExecutionMode executionMode;
+    private static volatile PropagationEstimator propagationEstimator;
+
+    static ClientOverrideConfiguration getOverrideConfiguration() {
+        ClientOverrideConfiguration configuration = overrideConfiguration;
+        if (configuration == null) {
+            synchronized (ClientBuilder.class) {
+                configuration = overrideConfiguration;
+                if (configuration == null) {
+                    configuration = overrideConfiguration(System::getenv);
+                    overrideConfiguration = configuration;
+                }
+            }
+        }
+        return configuration;
+    }
+
     static SchemasClient getSchemasClient() {
+        SchemasClient client = schemasClient;
+        if (client == null) {
+            synchronized (ClientBuilder.class) {
+                client = schemasClient;
+                if (client == null) {
+                    client = buildSchemasClient(System::getenv);
+                    schemasClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    static SchemasAsyncClient getSchemasAsyncClient() {
+        SchemasAsyncClient client = schemasAsyncClient;
+        if (client == null) {
+            synchronized (ClientBuilder.class) {
+                client = schemasAsyncClient;
+                if (client == null) {
+                    client = SchemasAsyncClient.builder()
+                            .httpClientBuilder(NettyNioAsyncHttpClient.builder())
+                            .overrideConfiguration(getOverrideConfiguration())
+                            .build();
+                    schemasAsyncClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    static RateLimiter getRateLimiter() {
+        RateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            synchronized (ClientBuilder.class) {
+                limiter = rateLimiter;
+                if (limiter == null) {
+                    limiter = buildRateLimiter(System::getenv);
+                    rateLimiter = limiter;
+                }
+            }
+        }
+        return limiter;
+    }
+
+    static RegistryCache getRegistryCache() {
+        RegistryCache cache = registryCache;
+        if (cache == null) {
+            synchronized (ClientBuilder.class) {
+                cache = registryCache;
+                if (cache == null) {
+                    cache = buildRegistryCache(System::getenv);
+                    registryCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    static ExecutionMode getExecutionMode() {
+        ExecutionMode mode = executionMode;
+        if (mode == null) {
+            synchronized (ClientBuilder.class) {
+                mode = executionMode;
+                if (mode == null) {
+                    mode = buildExecutionMode(System::getenv);
+                    executionMode = mode;
+                }
+            }
+        }
+        return mode;
+    }
+
+    static PropagationEstimator getPropagationEstimator() {
+        PropagationEstimator estimator = propagationEstimator;
+        if (estimator == null) {
+            synchronized (ClientBuilder.class) {
+                estimator = propagationEstimator;
+                if (estimator == null) {
+                    estimator = buildPropagationEstimator(System::getenv);
+                    propagationEstimator = estimator;
+                }
+            }
+        }
+        return estimator;
+    }
+
+    /**
+     * Replaces the shared clients, rate limiter, registry cache, execution mode or propagation
+     * estimator, e.g. with the SchemasSimulator of the tests and benchmarks. Passing {@code null}
+     * resets one so it is built again on next use.
+     */
+    static synchronized void setSchemasClient(SchemasClient client) {
+        schemasClient = client;
+    }
+
+    static synchronized void setSchemasAsyncClient(SchemasAsyncClient client) {
+        schemasAsyncClient = client;
+    }
+
+    static synchronized void setRateLimiter(RateLimiter limiter) {
+        rateLimiter = limiter;
+    }
+
+    static synchronized void setRegistryCache(RegistryCache cache) {
+        registryCache = cache;
+    }
+
+    static synchronized void setExecutionMode(ExecutionMode mode) {
+        executionMode = mode;
+    }
+
+    static synchronized void setPropagationEstimator(PropagationEstimator estimator) {
+        propagationEstimator = estimator;
+    }
+
+    static RateLimiter buildRateLimiter(Function<String, String> environment) {
+        final String rateLimits = environment.apply(RATE_LIMITS_ENV);
+        final Map<String, Double> permitsPerSecond = new HashMap<>();
+        for (String rateLimit : (rateLimits == null ? DEFAULT_RATE_LIMITS : rateLimits).split(",")) {
+            if (rateLimit.trim().isEmpty()) {
+                continue;
+            }
+            final String[] operationAndRate = rateLimit.split("=", 2);
+            if (operationAndRate.length != 2) {
+                throw new IllegalArgumentException(String.format("%s entry [%s] is not Operation=rate", RATE_LIMITS_ENV, rateLimit));
+            }
+            permitsPerSecond.put(operationAndRate[0].trim(), Double.parseDouble(operationAndRate[1].trim()));
+        }
+        return new RateLimiter(permitsPerSecond, System::nanoTime, Thread::sleep);
+    }
+
+    static RegistryCache buildRegistryCache(Function<String, String> environment) {
+        final String ttlMillis = environment.apply(REGISTRY_CACHE_TTL_ENV);
+        final String size = environment.apply(REGISTRY_CACHE_SIZE_ENV);
+        return new RegistryCache(
+                ttlMillis == null ? DEFAULT_REGISTRY_CACHE_TTL_MILLIS : Long.parseLong(ttlMillis.trim()),
+                size == null ? DEFAULT_REGISTRY_CACHE_SIZE : Integer.parseInt(size.trim()),
+                System::currentTimeMillis);
+    }
+
+    static ExecutionMode buildExecutionMode(Function<String, String> environment) {
+        final String mode = environment.apply(EXECUTION_MODE_ENV);
+        return mode == null ? ExecutionMode.SYNC : ExecutionMode.valueOf(mode.trim().toUpperCase());
+    }
+
+    static PropagationEstimator buildPropagationEstimator(Function<String, String> environment) {
+        final String percentile = environment.apply(CALLBACK_DELAY_PERCENTILE_ENV);
+        return new PropagationEstimator(
+                percentile == null ? DEFAULT_CALLBACK_DELAY_PERCENTILE : Double.parseDouble(percentile.trim()),
+                System::currentTimeMillis);
+    }
+
+    static SchemasClient buildSchemasClient(Function<String, String> environment) {
         return SchemasClient.builder()
                 .httpClient(LambdaWrapper.HTTP_CLIENT)
+                .overrideConfiguration(overrideConfiguration(environment))
                 .build();
     }
+
+    static ClientOverrideConfiguration overrideConfiguration(Function<String, String> environment) {
+        final ClientOverrideConfiguration.Builder builder = ClientOverrideConfiguration.builder()
+                .retryPolicy(software.amazon.awssdk.core.retry.RetryPolicy.none());
+
+        final Duration apiCallTimeout = durationOf(environment.apply(API_CALL_TIMEOUT_ENV));
+        if (apiCallTimeout != null) {
+            builder.apiCallTimeout(apiCallTimeout);
+        }
+
+        final Duration apiCallAttemptTimeout = durationOf(environment.apply(API_CALL_ATTEMPT_TIMEOUT_ENV));
+        if (apiCallAttemptTimeout != null) {
+            builder.apiCallAttemptTimeout(apiCallAttemptTimeout);
+        }
+
+        final String userAgentSuffix = environment.apply(USER_AGENT_SUFFIX_ENV);
+        if (userAgentSuffix != null) {
+            builder.putAdvancedOption(SdkAdvancedClientOption.USER_AGENT_SUFFIX, userAgentSuffix);
+        }
+
+        return builder.build();
+    }
+
+    private static Duration durationOf(String millis) {
+        return millis == null ? null : Duration.ofMillis(Long.parseLong(millis.trim()));
+    }
 }
@@ -1,9 +1,14 @@
 package software.amazon.eventschemas.registrypolicy;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.awssdk.services.schemas.model.DescribeRegistryRequest;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryResponse;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.NotFoundException;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
@@ -15,19 +20,33 @@ import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
-import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.awssdk.services.schemas.SchemasClient;
 
+import software.amazon.eventschemas.registrypolicy.CallbackContext.Phase;
+
+import static software.amazon.eventschemas.registrypolicy.SchemasCaller.join;
 import static software.amazon.eventschemas.registrypolicy.ResourceModel.TYPE_NAME;
 
 public class CreateHandler extends BaseHandler<CallbackContext> {
 
-    private static final int CALLBACK_DELAY_SECONDS = 30;
-    private static final int NUMBER_OF_CREATE_POLL_RETRIES = 3;
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PROPAGATION_OPERATION = "PutResourcePolicy";
 
-    private final SchemasClient schemasClient = ClientBuilder.getSchemasClient();
+    static {
+        // HandlerWrapper instantiates the handlers in the Lambda init phase
+        Primer.primeOnInit();
+    }
+
+    private final Stabilizer stabilizer;
+    private final Deadline.Factory deadlines;
+
+    public CreateHandler() {
+        this(Stabilizer.builder().build(), Deadline::of);
+    }
+
+    CreateHandler(final Stabilizer stabilizer, final Deadline.Factory deadlines) {
+        this.stabilizer = stabilizer;
+        this.deadlines = deadlines;
+    }
 
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -36,55 +55,101 @@ public class CreateHandler extends BaseHandler<CallbackContext> {
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        final CallbackContext context = callbackContext == null ? CallbackContext.builder()
-                .registryPolicyCreated(false)
-                .registryPolicyStabilized(false)
-                .stabilizationRetriesRemaining(NUMBER_OF_CREATE_POLL_RETRIES)
-                .build() : callbackContext;
+        // a context without a phase never got past the first one
+        final CallbackContext context = callbackContext == null || callbackContext.getPhase() == null
+                ? CallbackContext.start(Phase.PREFLIGHT, stabilizer.now()) : callbackContext;
+
+        final Metrics metrics = new Metrics("Create");
+        final SchemasCaller caller = new SchemasCaller(metrics, deadlines.of(proxy));
+        final PhaseRunner phases = new PhaseRunner(stabilizer, metrics, caller, logger);
+        return phases.run(request.getDesiredResourceState(), context,
+                () -> handleRequest(proxy, request, context, logger, metrics, caller, phases));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext context,
+            final Logger logger,
+            final Metrics metrics,
+            final SchemasCaller caller,
+            final PhaseRunner phases) {
 
         final ResourceModel resourceModel = request.getDesiredResourceState();
         final String registryName = resourceModel.getRegistryName();
+        context.attempt();
 
-        if (resourceModel.getId() == null) {
-            checkRegistryExists(registryName, proxy);
-            checkRegistryHasNoPolicy(registryName, proxy, logger);
-            resourceModel.setId(registryName);
-        }
+        String policy = null;
 
-        if (!context.isRegistryPolicyCreated()) {
-            PutResourcePolicyResponse putResourcePolicyResponse = putPolicy(registryName, resourceModel.getPolicy(), proxy);
+        if (context.getPhase() == Phase.PREFLIGHT) {
+            // fail before the pre-flight calls
+            PolicyValidator.validate(resourceModel.getPolicy());
 
-            context.setRegistryPolicyCreated(true);
-            resourceModel.setRevisionId(putResourcePolicyResponse.revisionId());
+            // a registry seen recently is not described again
+            final RegistryCache registryCache = ClientBuilder.getRegistryCache();
+            final boolean registryKnown = registryCache.contains(registryName);
+            if (registryCache.isEnabled()) {
+                metrics.registryCache(registryKnown);
+            }
 
-            logger.log(String.format("%s [%s] created successfully",
-                    ResourceModel.TYPE_NAME, registryName));
+            // in ASYNC mode both pre-flight reads are in flight while the policy is serialized
+            final CompletableFuture<DescribeRegistryResponse> registry = registryKnown ? null : describeRegistry(registryName, proxy, caller);
+            final CompletableFuture<GetResourcePolicyResponse> existingPolicy = getExistingPolicy(registryName, proxy, caller);
+            policy = serializePolicy(resourceModel.getPolicy());
+            resourceModel.setPolicyDigest(policyDigest(resourceModel.getPolicy()));
+
+            if (registry != null) {
+                checkRegistryExists(registryName, registry);
+                registryCache.put(registryName);
+            }
+            // a policy that matches the desired one is taken as put by an earlier attempt of this create
+            final String existingRevisionId = checkRegistryHasNoOtherPolicy(registryName, existingPolicy, resourceModel.getPolicyDigest(), logger);
+            if (existingRevisionId == null) {
+                context.advance(Phase.WRITE, phases.now());
+            } else {
+                logger.log(String.format("%s [%s] already has the desired policy, skipping put",
+                        ResourceModel.TYPE_NAME, registryName));
+                context.setRevisionId(existingRevisionId);
+                context.advance(Phase.STABILIZE, phases.now());
+            }
         }
 
-        if (!context.isRegistryPolicyStabilized()) {
-            boolean stabilized = isRegistryPolicyStabilized(registryName, resourceModel.getRevisionId(), proxy);
-            if (!stabilized) {
-                context.decrementStabilizationRetriesRemaining();
+        resourceModel.setId(registryName);
+
+        if (context.getPhase() == Phase.WRITE) {
+            // a put retried after its response was lost writes the same policy again
+            if (policy == null) {
+                PolicyValidator.validate(resourceModel.getPolicy());
+                policy = serializePolicy(resourceModel.getPolicy());
+            }
+            final CompletableFuture<PutResourcePolicyResponse> put = putPolicy(registryName, policy, proxy, caller);
+            if (resourceModel.getPolicyDigest() == null) {
+                // digested while the put is in flight, in ASYNC mode
+                resourceModel.setPolicyDigest(policyDigest(resourceModel.getPolicy()));
             }
-            context.setRegistryPolicyStabilized(stabilized);
+            PutResourcePolicyResponse putResourcePolicyResponse = checkPolicyPut(registryName, put);
+
+            context.setRevisionId(putResourcePolicyResponse.revisionId());
+            context.advance(Phase.STABILIZE, phases.now());
+
+            logger.log(String.format("%s [%s] created successfully",
+                    ResourceModel.TYPE_NAME, registryName));
         }
 
-        if (!context.isRegistryPolicyStabilized()) {
-            return ProgressEvent.<ResourceModel, CallbackContext>builder()
-                    .callbackContext(context)
-                    .status(OperationStatus.IN_PROGRESS)
-                    .callbackDelaySeconds(CALLBACK_DELAY_SECONDS)
-                    .resourceModel(resourceModel)
-                    .build();
+        resourceModel.setRevisionId(context.getRevisionId());
+        if (resourceModel.getPolicyDigest() == null) {
+            resourceModel.setPolicyDigest(policyDigest(resourceModel.getPolicy()));
         }
 
-        return ProgressEvent.defaultSuccessHandler(resourceModel);
+        return phases.stabilize(resourceModel, registryName, context, PROPAGATION_OPERATION,
+                () -> isRegistryPolicyStabilized(registryName, context.getRevisionId(), proxy, caller));
     }
 
-    private boolean isRegistryPolicyStabilized(String registryName, String revisionId, AmazonWebServicesClientProxy proxy) {
+    private boolean isRegistryPolicyStabilized(String registryName, String revisionId, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
         try {
             GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
-            String revisionReturned = proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, schemasClient::getResourcePolicy).revisionId();
+            String revisionReturned = join(caller.call(proxy, getResourcePolicyRequest,
+                    SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy)).revisionId();
             return revisionReturned.equals(revisionId);
         } catch (NotFoundException e) {
             return false;
@@ -93,11 +158,20 @@ public class CreateHandler extends BaseHandler<CallbackContext> {
         }
     }
 
-    private void checkRegistryExists(String registryName, AmazonWebServicesClientProxy proxy) {
+    private CompletableFuture<DescribeRegistryResponse> describeRegistry(String registryName, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        DescribeRegistryRequest describeRegistryRequest = DescribeRegistryRequest.builder().registryName(registryName).build();
+        return caller.call(proxy, describeRegistryRequest, SchemasClient::describeRegistry, SchemasAsyncClient::describeRegistry);
+    }
+
+    private CompletableFuture<GetResourcePolicyResponse> getExistingPolicy(String registryName, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
+        return caller.call(proxy, getResourcePolicyRequest, SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy);
+    }
+
+    private void checkRegistryExists(String registryName, CompletableFuture<DescribeRegistryResponse> registry) {
         // pre-creation read to ensure registry exists
         try {
-            DescribeRegistryRequest describeRegistryRequest = DescribeRegistryRequest.builder().registryName(registryName).build();
-            proxy.injectCredentialsAndInvokeV2(describeRegistryRequest, schemasClient::describeRegistry);
+            join(registry);
         } catch (NotFoundException e) {
             throw new CfnNotFoundException(TYPE_NAME, registryName, e);
         } catch (SchemasException e) {
@@ -105,25 +179,66 @@ public class CreateHandler extends BaseHandler<CallbackContext> {
         }
     }
 
-    private void checkRegistryHasNoPolicy(String registryName, AmazonWebServicesClientProxy proxy, Logger logger) {
-        GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
+    /**
+     * Revision id of the existing policy if it matches the desired one, or {@code null} if the
+     * registry has no policy. Any other policy already exists.
+     */
+    private String checkRegistryHasNoOtherPolicy(String registryName, CompletableFuture<GetResourcePolicyResponse> existingPolicy,
+                                                 String desiredPolicyDigest, Logger logger) {
+        final GetResourcePolicyResponse getResourcePolicyResponse;
         try {
-            proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, schemasClient::getResourcePolicy);
-            throw new CfnAlreadyExistsException(TYPE_NAME, registryName);
+            getResourcePolicyResponse = join(existingPolicy);
         } catch (NotFoundException e) {
             logger.log(String.format("%s Resource creation can proceed ", e.getMessage()));
+            return null;
         } catch (SchemasException e) {
             throw new CfnGeneralServiceException("CheckRegistryHasNoPolicy", e);
         }
+        if (!isDesiredPolicy(getResourcePolicyResponse.policy(), desiredPolicyDigest)) {
+            throw new CfnAlreadyExistsException(TYPE_NAME, registryName);
+        }
+        return getResourcePolicyResponse.revisionId();
+    }
+
+    private boolean isDesiredPolicy(String existingPolicy, String desiredPolicyDigest) {
+        if (existingPolicy == null || desiredPolicyDigest == null) {
+            return false;
+        }
+        try {
+            return desiredPolicyDigest.equals(PolicyCanonicalizer.digest(PolicyCodec.parse(existingPolicy)));
+        } catch (IOException e) {
+            return false;
+        }
     }
 
-    private PutResourcePolicyResponse putPolicy(String registryName, Object policyObject, AmazonWebServicesClientProxy proxy) {
+    private String serializePolicy(Object policyObject) {
         try {
-            String policy = MAPPER.writeValueAsString(policyObject);
-            PutResourcePolicyRequest putResourcePolicyRequest = PutResourcePolicyRequest.builder().registryName(registryName).policy(policy).build();
-            return proxy.injectCredentialsAndInvokeV2(putResourcePolicyRequest, schemasClient::putResourcePolicy);
-        } catch (JsonProcessingException e) {
+            return PolicyCodec.write(policyObject);
+        } catch (IOException e) {
             throw new CfnInvalidRequestException(e);
+        }
+    }
+
+    private String policyDigest(Object policyObject) {
+        try {
+            return PolicyCanonicalizer.digest(policyObject);
+        } catch (IOException e) {
+            throw new CfnInvalidRequestException(e);
+        }
+    }
+
+    private CompletableFuture<PutResourcePolicyResponse> putPolicy(String registryName, String policy, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        PutResourcePolicyRequest putResourcePolicyRequest = PutResourcePolicyRequest.builder().registryName(registryName).policy(policy).build();
+        return caller.call(proxy, putResourcePolicyRequest, SchemasClient::putResourcePolicy, SchemasAsyncClient::putResourcePolicy);
+    }
+
+    private PutResourcePolicyResponse checkPolicyPut(String registryName, CompletableFuture<PutResourcePolicyResponse> put) {
+        try {
+            return join(put);
+        } catch (NotFoundException e) {
+            // the registry was deleted since it was cached or checked
+            ClientBuilder.getRegistryCache().invalidate(registryName);
+            throw new CfnNotFoundException(TYPE_NAME, registryName, e);
         } catch (SchemasException e) {
             throw new CfnGeneralServiceException("CreateRegistryPolicy", e);
         }
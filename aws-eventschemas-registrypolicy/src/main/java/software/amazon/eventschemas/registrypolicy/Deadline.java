@@ -0,0 +1,101 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+/**
+ * The end of the current invocation, taken from the proxy when a handler is entered, less
+ * {@value #RESERVE_MILLIS} ms kept for returning the progress event.
+ *
+ * Every Schemas call gets the time left as its API call timeout and attempt timeout, or the
+ * client's own timeouts when those are shorter, so a slow call fails inside the invocation instead
+ * of taking the invocation down with it. A call that cannot start with {@value #MIN_STEP_MILLIS} ms
+ * left throws {@link DeadlineExceededException}; handlers that can be called back then return
+ * IN_PROGRESS with the progress they made so far.
+ *
+ * Handlers get their deadline from a {@link Factory}, {@link #of} unless a test passes its own.
+ */
+final class Deadline {
+
+    static final long RESERVE_MILLIS = 1_000L;
+    static final long MIN_STEP_MILLIS = 1_000L;
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE, ClientOverrideConfiguration.builder().build(), () -> 0L);
+
+    private final long expiresAtMillis;
+    private final Duration apiCallTimeout;
+    private final Duration apiCallAttemptTimeout;
+    private final LongSupplier clock;
+
+    Deadline(final long remainingMillis, final ClientOverrideConfiguration configuration, final LongSupplier clock) {
+        this.expiresAtMillis = remainingMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE : clock.getAsLong() + remainingMillis - RESERVE_MILLIS;
+        this.apiCallTimeout = configuration.apiCallTimeout().orElse(null);
+        this.apiCallAttemptTimeout = configuration.apiCallAttemptTimeout().orElse(null);
+        this.clock = clock;
+    }
+
+    /**
+     * A deadline that never expires and leaves requests as they are.
+     */
+    static Deadline none() {
+        return NONE;
+    }
+
+    static Deadline of(final AmazonWebServicesClientProxy proxy) {
+        return new Deadline(proxy.getRemainingTimeInMillis(), ClientBuilder.getOverrideConfiguration(), System::currentTimeMillis);
+    }
+
+    long remainingMillis() {
+        return expiresAtMillis == Long.MAX_VALUE ? Long.MAX_VALUE : expiresAtMillis - clock.getAsLong();
+    }
+
+    /**
+     * The latest wall-clock time at which a step can still start, e.g. for the {@link Stabilizer}.
+     */
+    long lastStepStartMillis() {
+        return expiresAtMillis == Long.MAX_VALUE ? Long.MAX_VALUE : expiresAtMillis - MIN_STEP_MILLIS;
+    }
+
+    /**
+     * @throws DeadlineExceededException if {@code step} cannot start with enough time left
+     */
+    void check(final String step) {
+        final long remainingMillis = remainingMillis();
+        if (remainingMillis < MIN_STEP_MILLIS) {
+            throw new DeadlineExceededException(step, remainingMillis);
+        }
+    }
+
+    /**
+     * Returns {@code request} with its timeouts capped to the time left, keeping the rest of its
+     * override configuration, such as the credentials the proxy injected.
+     */
+    @SuppressWarnings("unchecked")
+    <RequestT extends AwsRequest> RequestT apply(final RequestT request) {
+        if (expiresAtMillis == Long.MAX_VALUE) {
+            return request;
+        }
+        final Duration remaining = Duration.ofMillis(Math.max(1L, remainingMillis()));
+        final AwsRequestOverrideConfiguration configuration = request.overrideConfiguration()
+                .map(AwsRequestOverrideConfiguration::toBuilder)
+                .orElseGet(AwsRequestOverrideConfiguration::builder)
+                .apiCallTimeout(shorter(remaining, apiCallTimeout))
+                .apiCallAttemptTimeout(shorter(remaining, apiCallAttemptTimeout))
+                .build();
+        return (RequestT) request.toBuilder().overrideConfiguration(configuration).build();
+    }
+
+    private static Duration shorter(final Duration remaining, final Duration configured) {
+        return configured == null || remaining.compareTo(configured) < 0 ? remaining : configured;
+    }
+
+    interface Factory {
+        Deadline of(AmazonWebServicesClientProxy proxy);
+    }
+}
@@ -0,0 +1,17 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+
+/**
+ * Thrown when a step would start too close to the end of the invocation to finish, see
+ * {@link Deadline}.
+ */
+class DeadlineExceededException extends TransientException {
+
+    private static final long serialVersionUID = 1L;
+
+    DeadlineExceededException(final String step, final long remainingMillis) {
+        super(String.format("%s not started with %d ms of the invocation left", step, remainingMillis),
+                HandlerErrorCode.ServiceInternalError, null);
+    }
+}
@@ -1,6 +1,7 @@
 package software.amazon.eventschemas.registrypolicy;
 
 import lombok.extern.java.Log;
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
 import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
@@ -11,17 +12,33 @@ import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
-import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.eventschemas.registrypolicy.CallbackContext.Phase;
 
+import static software.amazon.eventschemas.registrypolicy.SchemasCaller.join;
 import static software.amazon.eventschemas.registrypolicy.ResourceModel.TYPE_NAME;
 
 public class DeleteHandler extends BaseHandler<CallbackContext> {
 
-    private static final int CALLBACK_DELAY_SECONDS = 30;
-    private static final int NUMBER_OF_CREATE_POLL_RETRIES = 3;
+    private static final String PROPAGATION_OPERATION = "DeleteResourcePolicy";
+    // a delete usually propagates within a second or two, so it is polled more tightly than a write
+    private static final long STABILIZATION_INITIAL_DELAY_MILLIS = 100L;
+    private static final long STABILIZATION_MAX_DELAY_MILLIS = 1_000L;
 
-    private final SchemasClient schemasClient = ClientBuilder.getSchemasClient();
+    private final Stabilizer stabilizer;
+    private final Deadline.Factory deadlines;
+
+    public DeleteHandler() {
+        this(Stabilizer.builder()
+                .initialDelayMillis(STABILIZATION_INITIAL_DELAY_MILLIS)
+                .maxDelayMillis(STABILIZATION_MAX_DELAY_MILLIS)
+                .build(), Deadline::of);
+    }
+
+    DeleteHandler(final Stabilizer stabilizer, final Deadline.Factory deadlines) {
+        this.stabilizer = stabilizer;
+        this.deadlines = deadlines;
+    }
 
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -30,46 +47,45 @@ public class DeleteHandler extends BaseHandler<CallbackContext> {
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        final CallbackContext context = callbackContext == null ? CallbackContext.builder()
-                .registryPolicyDeleted(false)
-                .registryPolicyStabilized(false)
-                .stabilizationRetriesRemaining(NUMBER_OF_CREATE_POLL_RETRIES)
-                .build() : callbackContext;
+        // a context without a phase never got past the first one
+        final CallbackContext context = callbackContext == null || callbackContext.getPhase() == null
+                ? CallbackContext.start(Phase.WRITE, stabilizer.now()) : callbackContext;
+
+        final Metrics metrics = new Metrics("Delete");
+        final SchemasCaller caller = new SchemasCaller(metrics, deadlines.of(proxy));
+        final PhaseRunner phases = new PhaseRunner(stabilizer, metrics, caller, logger);
+        return phases.run(request.getDesiredResourceState(), context,
+                () -> handleRequest(proxy, request, context, logger, caller, phases));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext context,
+            final Logger logger,
+            final SchemasCaller caller,
+            final PhaseRunner phases) {
 
         final ResourceModel resourceModel = request.getDesiredResourceState();
         String registryName = resourceModel.getId();
 
-        if (!context.isRegistryPolicyDeleted()) {
-            deletePolicy(registryName, proxy);
-            context.setRegistryPolicyDeleted(true);
+        context.attempt();
+
+        if (context.getPhase() == Phase.WRITE) {
+            deletePolicy(registryName, proxy, caller);
+            context.advance(Phase.STABILIZE, phases.now());
             logger.log(String.format("%s [%s] deleted successfully",
                     ResourceModel.TYPE_NAME, registryName));
         }
 
-        if (!context.isRegistryPolicyStabilized()) {
-            boolean stabilized = isRegistryPolicyStabilized(registryName, proxy);
-            if (!stabilized) {
-                context.decrementStabilizationRetriesRemaining();
-            }
-            context.setRegistryPolicyStabilized(stabilized);
-        }
-
-        if (!context.isRegistryPolicyStabilized()) {
-            return ProgressEvent.<ResourceModel, CallbackContext>builder()
-                    .callbackContext(context)
-                    .status(OperationStatus.IN_PROGRESS)
-                    .callbackDelaySeconds(CALLBACK_DELAY_SECONDS)
-                    .resourceModel(resourceModel)
-                    .build();
-        }
-
-        return ProgressEvent.defaultSuccessHandler(resourceModel);
+        return phases.stabilize(resourceModel, registryName, context, PROPAGATION_OPERATION,
+                () -> isRegistryPolicyStabilized(registryName, proxy, caller));
     }
 
-    private boolean isRegistryPolicyStabilized(String registryName, AmazonWebServicesClientProxy proxy) {
+    private boolean isRegistryPolicyStabilized(String registryName, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
         GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
         try {
-            proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, schemasClient::getResourcePolicy);
+            join(caller.call(proxy, getResourcePolicyRequest, SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy));
             return false;
         } catch (NotFoundException e) {
             return true;
@@ -78,13 +94,15 @@ public class DeleteHandler extends BaseHandler<CallbackContext> {
         }
     }
 
-    private void deletePolicy(String registryName, AmazonWebServicesClientProxy proxy) {
+    private void deletePolicy(String registryName, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
         try {
             DeleteResourcePolicyRequest deleteResourcePolicyRequest = DeleteResourcePolicyRequest.builder()
                     .registryName(registryName)
                     .build();
-            proxy.injectCredentialsAndInvokeV2(deleteResourcePolicyRequest, schemasClient::deleteResourcePolicy);
+            join(caller.call(proxy, deleteResourcePolicyRequest,
+                    SchemasClient::deleteResourcePolicy, SchemasAsyncClient::deleteResourcePolicy));
         } catch (NotFoundException e) {
+            ClientBuilder.getRegistryCache().invalidate(registryName);
             throw new CfnNotFoundException(TYPE_NAME, registryName, e);
         } catch (SchemasException e) {
             throw new CfnGeneralServiceException("DeletePolicy", e);
@@ -0,0 +1,45 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.awssdk.core.exception.NonRetryableException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/**
+ * Sorts the errors of Schemas calls into the ways a handler deals with them: service errors and
+ * throttling are worth retrying, anything else is the caller's fault and fails the operation.
+ */
+final class ErrorClassifier {
+
+    enum Category {
+        /**
+         * Server side or transport failure that may well succeed on the next attempt.
+         */
+        RETRYABLE,
+        /**
+         * The service or the account is over its request rate.
+         */
+        THROTTLING,
+        /**
+         * Client error (missing resource, stale revision, invalid request...) retrying cannot fix.
+         */
+        TERMINAL
+    }
+
+    private ErrorClassifier() {
+    }
+
+    static Category classify(final Throwable error) {
+        if (error instanceof SdkServiceException) {
+            final SdkServiceException serviceException = (SdkServiceException) error;
+            if (serviceException.isThrottlingException()) {
+                return Category.THROTTLING;
+            }
+            return serviceException.statusCode() >= 500 ? Category.RETRYABLE : Category.TERMINAL;
+        }
+        if (error instanceof SdkClientException && !(error instanceof NonRetryableException)) {
+            // timeouts and I/O errors, the request may not even have reached the service
+            return Category.RETRYABLE;
+        }
+        return Category.TERMINAL;
+    }
+}
@@ -0,0 +1,20 @@
+package software.amazon.eventschemas.registrypolicy;
+
+/**
+ * How handlers make their Schemas calls, see {@link SchemasCaller#call}. Both modes return the same
+ * progress events; they differ in which client the calls go through and in how much of an
+ * invocation is spent blocked on them.
+ */
+enum ExecutionMode {
+    /**
+     * Every call is made on the blocking {@link software.amazon.awssdk.services.schemas.SchemasClient}
+     * when the handler starts it.
+     */
+    SYNC,
+    /**
+     * Every call is made on the {@link software.amazon.awssdk.services.schemas.SchemasAsyncClient},
+     * so that the handler keeps working, e.g. serializing or digesting the policy, while it is in
+     * flight, and only waits where it needs the result.
+     */
+    ASYNC
+}
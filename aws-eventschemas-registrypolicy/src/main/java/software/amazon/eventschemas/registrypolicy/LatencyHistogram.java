@@ -0,0 +1,94 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory histogram of latencies, in buckets that widen from 250 ms to the 5 minute
+ * stabilization timeout, plus one for anything slower. Once it holds {@value #MAX_SAMPLES}
+ * samples every count is halved, so older samples fade instead of the counts growing forever.
+ */
+class LatencyHistogram {
+
+    static final int MAX_SAMPLES = 10_000;
+
+    // upper bound of each bucket but the last, which is unbounded
+    private static final long[] BOUNDS_MILLIS = {
+            250L, 500L, 1_000L, 2_000L, 3_000L, 5_000L, 8_000L, 13_000L, 20_000L, 30_000L,
+            45_000L, 60_000L, 90_000L, 120_000L, 180_000L, 240_000L, 300_000L
+    };
+
+    private final int[] counts = new int[BOUNDS_MILLIS.length + 1];
+    private int total;
+
+    synchronized void record(final long millis) {
+        counts[bucket(millis)]++;
+        if (++total > MAX_SAMPLES) {
+            total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] /= 2;
+                total += counts[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the latency that the given percentile of the samples slower than {@code elapsedMillis}
+     * stay under, i.e. how long to wait for something that has not completed after
+     * {@code elapsedMillis}, or -1 when no sample was that slow. Samples in the unbounded bucket
+     * count as {@code maxMillis}.
+     */
+    synchronized long percentileAfter(final double percentile, final long elapsedMillis, final long maxMillis) {
+        final int first = bucket(elapsedMillis);
+        long slower = 0;
+        for (int i = first; i < counts.length; i++) {
+            slower += counts[i];
+        }
+        if (slower == 0) {
+            return -1L;
+        }
+
+        final long rank = (long) Math.ceil(slower * percentile / 100.0);
+        long seen = 0;
+        for (int i = first; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i < BOUNDS_MILLIS.length ? BOUNDS_MILLIS[i] : maxMillis;
+            }
+        }
+        return maxMillis;
+    }
+
+    /**
+     * Returns the counts, without trailing empty buckets, or {@code null} when empty.
+     */
+    synchronized int[] snapshot() {
+        int length = counts.length;
+        while (length > 0 && counts[length - 1] == 0) {
+            length--;
+        }
+        return length == 0 ? null : Arrays.copyOf(counts, length);
+    }
+
+    /**
+     * Adopts the counts of a {@link #snapshot()} taken elsewhere, unless this histogram already
+     * has samples of its own.
+     */
+    synchronized void seed(final int[] snapshot) {
+        if (snapshot == null || total > 0) {
+            return;
+        }
+        for (int i = 0; i < Math.min(snapshot.length, counts.length); i++) {
+            counts[i] = Math.max(0, snapshot[i]);
+            total += counts[i];
+        }
+    }
+
+    private static int bucket(final long millis) {
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            if (millis <= BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS_MILLIS.length;
+    }
+}
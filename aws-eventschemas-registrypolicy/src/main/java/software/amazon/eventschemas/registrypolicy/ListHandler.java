@@ -0,0 +1,139 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesRequest;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesResponse;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.RegistrySummary;
+import software.amazon.awssdk.services.schemas.model.SchemasException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import static software.amazon.eventschemas.registrypolicy.SchemasCaller.join;
+
+public class ListHandler extends BaseHandler<CallbackContext> {
+
+    private static final int MAX_CONCURRENT_REQUESTS = 10;
+
+    private final int maxConcurrentRequests;
+    private final Deadline.Factory deadlines;
+
+    public ListHandler() {
+        this(MAX_CONCURRENT_REQUESTS, Deadline::of);
+    }
+
+    ListHandler(final int maxConcurrentRequests, final Deadline.Factory deadlines) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.deadlines = deadlines;
+    }
+
+    @Override
+    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext callbackContext,
+            final Logger logger) {
+
+        final Metrics metrics = new Metrics("List");
+        final SchemasCaller caller = new SchemasCaller(metrics, deadlines.of(proxy));
+        return PhaseRunner.runOnce(metrics, logger, null, callbackContext,
+                () -> handleRequest(proxy, request, callbackContext, logger, caller));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext callbackContext,
+            final Logger logger,
+            final SchemasCaller caller) {
+
+        // one page of registries per invocation, so memory does not grow with the number of registries
+        final ListRegistriesResponse listRegistriesResponse = listRegistries(request.getNextToken(), proxy, caller);
+        final List<RegistrySummary> registries = listRegistriesResponse.registries();
+
+        // in ASYNC mode up to maxConcurrentRequests policy reads are in flight at once
+        final List<CompletableFuture<GetResourcePolicyResponse>> policies = new ArrayList<>(registries.size());
+        final Semaphore permits = new Semaphore(maxConcurrentRequests);
+        for (RegistrySummary registry : registries) {
+            permits.acquireUninterruptibly();
+            policies.add(getPolicy(registry.registryName(), proxy, caller)
+                    .whenComplete((response, error) -> permits.release()));
+        }
+
+        final List<ResourceModel> resourceModels = new ArrayList<>(registries.size());
+        for (int i = 0; i < registries.size(); i++) {
+            final ResourceModel resourceModel = toResourceModel(registries.get(i).registryName(), policies.get(i), logger);
+            if (resourceModel != null) {
+                resourceModels.add(resourceModel);
+            }
+        }
+
+        logger.log(String.format("%s listed %d policies from %d registries",
+                ResourceModel.TYPE_NAME, resourceModels.size(), registries.size()));
+
+        return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                .resourceModels(resourceModels)
+                .nextToken(listRegistriesResponse.nextToken())
+                .status(OperationStatus.SUCCESS)
+                .build();
+    }
+
+    private ListRegistriesResponse listRegistries(String nextToken, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        try {
+            ListRegistriesRequest listRegistriesRequest = ListRegistriesRequest.builder()
+                    // AWS and discovered registries cannot carry a policy of the account
+                    .scope("LOCAL")
+                    .nextToken(nextToken)
+                    .build();
+            return join(caller.call(proxy, listRegistriesRequest, SchemasClient::listRegistries, SchemasAsyncClient::listRegistries));
+        } catch (SchemasException e) {
+            throw new CfnGeneralServiceException("ListRegistries", e);
+        }
+    }
+
+    private CompletableFuture<GetResourcePolicyResponse> getPolicy(String registryName, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
+        return caller.call(proxy, getResourcePolicyRequest, SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy);
+    }
+
+    /**
+     * Model of the registry's policy, or {@code null} if the registry has none or its policy cannot be read.
+     */
+    private ResourceModel toResourceModel(String registryName, CompletableFuture<GetResourcePolicyResponse> policy, Logger logger) {
+        try {
+            GetResourcePolicyResponse getResourcePolicyResponse = join(policy);
+            final Map<String, Object> document = PolicyCodec.parse(getResourcePolicyResponse.policy());
+            ResourceModel resourceModel = ResourceModel.builder()
+                    .id(registryName)
+                    .registryName(registryName)
+                    .policy(document)
+                    .revisionId(getResourcePolicyResponse.revisionId())
+                    .build();
+            resourceModel.setPolicyDigest(PolicyCanonicalizer.digest(document));
+            return resourceModel;
+        } catch (NotFoundException e) {
+            // the registry has no policy, or was deleted since it was listed
+            return null;
+        } catch (SchemasException e) {
+            // terminal for this registry only (e.g. access denied), transient errors fail the page as TransientException
+            logger.log(String.format("%s skipped registry %s: %s", ResourceModel.TYPE_NAME, registryName, e.getMessage()));
+            return null;
+        } catch (IOException e) {
+            throw new CfnGeneralServiceException("ListRegistryPolicies", e);
+        }
+    }
+}
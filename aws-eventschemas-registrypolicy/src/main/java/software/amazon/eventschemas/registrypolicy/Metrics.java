@@ -0,0 +1,253 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+
+/**
+ * Metrics of a single handler invocation: latency, errors and payload size of every attempt of a
+ * Schemas call made through {@link SchemasCaller}, its retries and rate limiting, stabilization
+ * polling, registry cache lookups and whether the invocation asked to be called back. The
+ * invocation that completes a stabilization also reports how many polls it took across all
+ * invocations, as {@code PollsToStabilize}. {@link #flush(Logger)} writes them as one CloudWatch
+ * Embedded Metric Format document, with one metric per operation and the handler as dimension.
+ */
+final class Metrics {
+
+    static final String NAMESPACE = "EventSchemas/RegistryPolicy";
+    static final String HANDLER_DIMENSION = "Handler";
+
+    // EMF accepts at most 100 values per metric in a document
+    private static final int MAX_VALUES = 100;
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final String handler;
+    private final LongSupplier clock;
+
+    private final Map<String, OperationMetrics> operations = new TreeMap<>();
+    private int stabilizationAttempts;
+    private long stabilizationWaitMillis;
+    private Integer pollsToStabilize;
+    private int callbacks;
+    private long rateLimitWaitNanos;
+    private int rateLimited;
+    private int retries;
+    private int registryCacheHits;
+    private int registryCacheMisses;
+
+    Metrics(final String handler) {
+        this(handler, System::currentTimeMillis);
+    }
+
+    Metrics(final String handler, final LongSupplier clock) {
+        this.handler = handler;
+        this.clock = clock;
+    }
+
+    /**
+     * Records one attempt of a call, made by {@link SchemasCaller}.
+     */
+    synchronized void call(final AwsRequest request, final AwsResponse response, final Throwable error, final double latencyMillis) {
+        final OperationMetrics metrics = operations.computeIfAbsent(operationName(request), key -> new OperationMetrics());
+        metrics.calls++;
+        if (metrics.latencyCount < MAX_VALUES) {
+            metrics.latenciesMillis[metrics.latencyCount++] = latencyMillis;
+        }
+        metrics.payloadBytes += payloadBytes(request) + payloadBytes(response);
+        if (error != null) {
+            metrics.errors++;
+            metrics.lastError = error.getClass().getSimpleName();
+        }
+    }
+
+    synchronized void retried() {
+        retries++;
+    }
+
+    synchronized void rateLimitWait(final long waitNanos) {
+        rateLimitWaitNanos += waitNanos;
+    }
+
+    synchronized void rateLimited() {
+        rateLimited++;
+    }
+
+    synchronized void stabilization(final StabilizationResult result) {
+        stabilizationAttempts += result.getAttempts();
+        stabilizationWaitMillis += result.getWaitedMillis();
+    }
+
+    synchronized void stabilized(final int polls) {
+        pollsToStabilize = polls;
+    }
+
+    synchronized void registryCache(final boolean hit) {
+        if (hit) {
+            registryCacheHits++;
+        } else {
+            registryCacheMisses++;
+        }
+    }
+
+    /**
+     * Records whether {@code event} makes CloudFormation call the handler back, and returns it.
+     */
+    synchronized ProgressEvent<ResourceModel, CallbackContext> progress(final ProgressEvent<ResourceModel, CallbackContext> event) {
+        if (event != null && event.getStatus() == OperationStatus.IN_PROGRESS) {
+            callbacks++;
+        }
+        return event;
+    }
+
+    synchronized void flush(final Logger logger) {
+        try {
+            logger.log(toEmf());
+        } catch (IOException e) {
+            logger.log(String.format("%s metrics could not be written: %s", ResourceModel.TYPE_NAME, e.getMessage()));
+        }
+    }
+
+    synchronized String toEmf() throws IOException {
+        final StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+
+            generator.writeObjectFieldStart("_aws");
+            generator.writeNumberField("Timestamp", clock.getAsLong());
+            generator.writeArrayFieldStart("CloudWatchMetrics");
+            generator.writeStartObject();
+            generator.writeStringField("Namespace", NAMESPACE);
+            generator.writeArrayFieldStart("Dimensions");
+            generator.writeStartArray();
+            generator.writeString(HANDLER_DIMENSION);
+            generator.writeEndArray();
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("Metrics");
+            for (String operation : operations.keySet()) {
+                writeDefinition(generator, operation + "Calls", "Count");
+                writeDefinition(generator, operation + "Errors", "Count");
+                writeDefinition(generator, operation + "Latency", "Milliseconds");
+                writeDefinition(generator, operation + "PayloadBytes", "Bytes");
+            }
+            writeDefinition(generator, "StabilizationAttempts", "Count");
+            writeDefinition(generator, "StabilizationWait", "Milliseconds");
+            if (pollsToStabilize != null) {
+                writeDefinition(generator, "PollsToStabilize", "Count");
+            }
+            writeDefinition(generator, "Callbacks", "Count");
+            writeDefinition(generator, "RateLimitWait", "Milliseconds");
+            writeDefinition(generator, "RateLimited", "Count");
+            writeDefinition(generator, "Retries", "Count");
+            writeDefinition(generator, "RegistryCacheHits", "Count");
+            writeDefinition(generator, "RegistryCacheMisses", "Count");
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+
+            generator.writeStringField(HANDLER_DIMENSION, handler);
+            for (Map.Entry<String, OperationMetrics> entry : operations.entrySet()) {
+                final String operation = entry.getKey();
+                final OperationMetrics metrics = entry.getValue();
+                generator.writeNumberField(operation + "Calls", metrics.calls);
+                generator.writeNumberField(operation + "Errors", metrics.errors);
+                generator.writeArrayFieldStart(operation + "Latency");
+                for (int i = 0; i < metrics.latencyCount; i++) {
+                    generator.writeNumber(metrics.latenciesMillis[i]);
+                }
+                generator.writeEndArray();
+                generator.writeNumberField(operation + "PayloadBytes", metrics.payloadBytes);
+                if (metrics.lastError != null) {
+                    // not a metric, but searchable in the log
+                    generator.writeStringField(operation + "ErrorClass", metrics.lastError);
+                }
+            }
+            generator.writeNumberField("StabilizationAttempts", stabilizationAttempts);
+            generator.writeNumberField("StabilizationWait", stabilizationWaitMillis);
+            if (pollsToStabilize != null) {
+                generator.writeNumberField("PollsToStabilize", pollsToStabilize);
+            }
+            generator.writeNumberField("Callbacks", callbacks);
+            generator.writeNumberField("RateLimitWait", TimeUnit.NANOSECONDS.toMillis(rateLimitWaitNanos));
+            generator.writeNumberField("RateLimited", rateLimited);
+            generator.writeNumberField("Retries", retries);
+            generator.writeNumberField("RegistryCacheHits", registryCacheHits);
+            generator.writeNumberField("RegistryCacheMisses", registryCacheMisses);
+
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    static String operationName(final AwsRequest request) {
+        final String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    /**
+     * Size of the policy document carried by a request or response, the only payload of note.
+     */
+    private static long payloadBytes(final Object message) {
+        if (message instanceof PutResourcePolicyRequest) {
+            return utf8Length(((PutResourcePolicyRequest) message).policy());
+        }
+        if (message instanceof PutResourcePolicyResponse) {
+            return utf8Length(((PutResourcePolicyResponse) message).policy());
+        }
+        if (message instanceof GetResourcePolicyResponse) {
+            return utf8Length(((GetResourcePolicyResponse) message).policy());
+        }
+        return 0;
+    }
+
+    private static long utf8Length(final String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void writeDefinition(final JsonGenerator generator, final String name, final String unit) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("Name", name);
+        generator.writeStringField("Unit", unit);
+        generator.writeEndObject();
+    }
+
+    private static final class OperationMetrics {
+        private final double[] latenciesMillis = new double[MAX_VALUES];
+        private int latencyCount;
+        private int calls;
+        private int errors;
+        private long payloadBytes;
+        private String lastError;
+    }
+}
@@ -0,0 +1,132 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+
+import software.amazon.eventschemas.registrypolicy.CallbackContext.Phase;
+
+/**
+ * The phase control flow Create, Update and Delete share, for one invocation: yielding on a
+ * {@link TransientException}, and the STABILIZE phase that follows their writes. Each handler
+ * only runs the phases before it.
+ */
+final class PhaseRunner {
+
+    static final int TRANSIENT_ERROR_CALLBACK_DELAY_SECONDS = 5;
+    static final long STABILIZATION_TIMEOUT_MILLIS = 5 * 60 * 1000L;
+
+    private final Stabilizer stabilizer;
+    private final Metrics metrics;
+    private final SchemasCaller caller;
+    private final Logger logger;
+
+    PhaseRunner(final Stabilizer stabilizer, final Metrics metrics, final SchemasCaller caller, final Logger logger) {
+        this.stabilizer = stabilizer;
+        this.metrics = metrics;
+        this.caller = caller;
+        this.logger = logger;
+    }
+
+    /**
+     * The time a phase advanced to now starts at, by the clock its deadline is checked against.
+     */
+    long now() {
+        return stabilizer.now();
+    }
+
+    /**
+     * Runs the phases of an invocation and flushes its metrics. A {@link TransientException}
+     * yields with a short callback delay, to resume from the phase the context is in.
+     */
+    ProgressEvent<ResourceModel, CallbackContext> run(
+            final ResourceModel desiredResourceState,
+            final CallbackContext context,
+            final Supplier<ProgressEvent<ResourceModel, CallbackContext>> phases) {
+        try {
+            return metrics.progress(phases.get());
+        } catch (TransientException e) {
+            logger.log(String.format("%s %s, yielding", ResourceModel.TYPE_NAME, e.getMessage()));
+            return metrics.progress(ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .callbackContext(context)
+                    .status(OperationStatus.IN_PROGRESS)
+                    .callbackDelaySeconds(TRANSIENT_ERROR_CALLBACK_DELAY_SECONDS)
+                    .resourceModel(desiredResourceState)
+                    .build());
+        } finally {
+            metrics.flush(logger);
+        }
+    }
+
+    /**
+     * Same as {@link #run}, for Read and List, which cannot be called back: a
+     * {@link TransientException} fails with its error code, which CloudFormation retries on.
+     */
+    static ProgressEvent<ResourceModel, CallbackContext> runOnce(
+            final Metrics metrics,
+            final Logger logger,
+            final ResourceModel resourceModel,
+            final CallbackContext callbackContext,
+            final Supplier<ProgressEvent<ResourceModel, CallbackContext>> invocation) {
+        try {
+            return metrics.progress(invocation.get());
+        } catch (TransientException e) {
+            return ProgressEvent.failed(resourceModel, callbackContext, e.getErrorCode(), e.getMessage());
+        } finally {
+            metrics.flush(logger);
+        }
+    }
+
+    /**
+     * Polls {@code check} if the context is in the STABILIZE phase, and returns the event the
+     * invocation ends with: IN_PROGRESS with the learned callback delay while the write is not
+     * visible yet, NotStabilized once the phase timed out, and success once the context is DONE.
+     */
+    ProgressEvent<ResourceModel, CallbackContext> stabilize(
+            final ResourceModel resourceModel,
+            final String registryName,
+            final CallbackContext context,
+            final String propagationOperation,
+            final BooleanSupplier check) {
+
+        if (context.getPhase() == Phase.STABILIZE) {
+            final PropagationEstimator estimator = ClientBuilder.getPropagationEstimator();
+            estimator.seed(propagationOperation, context);
+            final StabilizationResult result = stabilizer.stabilize(check,
+                    Math.min(context.phaseDeadline(STABILIZATION_TIMEOUT_MILLIS), caller.getDeadline().lastStepStartMillis()));
+            logger.log(String.format("%s [%s] stabilization polled %d time(s), waited %d ms",
+                    ResourceModel.TYPE_NAME, registryName, result.getAttempts(), result.getWaitedMillis()));
+            metrics.stabilization(result);
+            final int polls = context.polled(result.getAttempts());
+
+            if (!result.isStabilized()) {
+                if (stabilizer.isExpired(context.phaseDeadline(STABILIZATION_TIMEOUT_MILLIS))) {
+                    return ProgressEvent.failed(resourceModel, context, HandlerErrorCode.NotStabilized,
+                            String.format("%s [%s] did not stabilize within %d seconds",
+                                    ResourceModel.TYPE_NAME, registryName, STABILIZATION_TIMEOUT_MILLIS / 1000));
+                }
+                return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                        .callbackContext(context)
+                        .status(OperationStatus.IN_PROGRESS)
+                        .callbackDelaySeconds(estimator.callbackDelaySeconds(propagationOperation, context, STABILIZATION_TIMEOUT_MILLIS))
+                        .resourceModel(resourceModel)
+                        .build();
+            }
+            logger.log(String.format("%s [%s] stabilized after %d poll(s) in %d invocation(s)",
+                    ResourceModel.TYPE_NAME, registryName, polls, context.getAttempts()));
+            metrics.stabilized(polls);
+            estimator.stabilized(propagationOperation, context);
+            context.advance(Phase.DONE, stabilizer.now());
+        }
+
+        if (context.getPhase() != Phase.DONE) {
+            return ProgressEvent.failed(resourceModel, context, HandlerErrorCode.InternalFailure,
+                    String.format("%s [%s] cannot resume from phase %s", ResourceModel.TYPE_NAME, registryName, context.getPhase()));
+        }
+        return ProgressEvent.defaultSuccessHandler(resourceModel);
+    }
+}
@@ -0,0 +1,178 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reduces a policy document to a canonical form, so that documents which only differ in ways the
+ * policy language ignores compare equal and have the same {@link #digest(Object)}:
+ * <ul>
+ *     <li>key order</li>
+ *     <li>a single value written as a string instead of a one element array</li>
+ *     <li>the order of, and duplicates in, {@code Action}, {@code Resource} and {@code Principal} values</li>
+ *     <li>the order of statements</li>
+ * </ul>
+ */
+final class PolicyCanonicalizer {
+
+    private static final Set<String> UNORDERED_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Action", "NotAction", "Resource", "NotResource")));
+    private static final Set<String> PRINCIPAL_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Principal", "NotPrincipal")));
+    private static final String STATEMENT_KEY = "Statement";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private PolicyCanonicalizer() {
+    }
+
+    static boolean equivalent(Object left, Object right) {
+        return Objects.equals(canonicalize(left), canonicalize(right));
+    }
+
+    static Object canonicalize(Object value) {
+        return canonicalize(value, Ordering.ORDERED);
+    }
+
+    /**
+     * Hex encoded SHA-256 of the canonical form of {@code policy}, streamed straight from the
+     * canonical tree into the digest, or {@code null} if there is no policy.
+     */
+    static String digest(Object policy) throws IOException {
+        if (policy == null) {
+            return null;
+        }
+        final MessageDigest digest = sha256();
+        PolicyCodec.write(canonicalize(policy), new OutputStream() {
+            @Override
+            public void write(int b) {
+                digest.update((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                digest.update(b, off, len);
+            }
+        });
+        return hex(digest.digest());
+    }
+
+    private static Object canonicalize(Object value, Ordering ordering) {
+        if (value instanceof Map) {
+            final Map<String, Object> canonical = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                final String key = String.valueOf(entry.getKey());
+                canonical.put(key, canonicalize(entry.getValue(), ordering.of(key)));
+            }
+            return canonical;
+        }
+        if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            final List<Object> canonical = new ArrayList<>(list.size());
+            for (Object element : list) {
+                canonical.add(canonicalize(element, ordering.ofElements()));
+            }
+            if (ordering.sorted) {
+                sort(canonical, ordering.distinct);
+            }
+            return canonical.size() == 1 ? canonical.get(0) : canonical;
+        }
+        return value;
+    }
+
+    /**
+     * Sorts canonical values by their JSON text, dropping duplicates if {@code distinct}.
+     */
+    private static void sort(List<Object> values, boolean distinct) {
+        final List<Map.Entry<String, Object>> keyed = new ArrayList<>(values.size());
+        for (Object value : values) {
+            keyed.add(new AbstractMap.SimpleImmutableEntry<>(sortKey(value), value));
+        }
+        keyed.sort(Map.Entry.comparingByKey());
+
+        values.clear();
+        String previous = null;
+        for (Map.Entry<String, Object> entry : keyed) {
+            if (!distinct || !entry.getKey().equals(previous)) {
+                values.add(entry.getValue());
+            }
+            previous = entry.getKey();
+        }
+    }
+
+    private static String sortKey(Object value) {
+        try {
+            return PolicyCodec.write(value);
+        } catch (IOException e) {
+            // not a JSON value, it can still be ordered consistently
+            return String.valueOf(value);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Whether the arrays found under a key can be reordered, and deduplicated, without changing the
+     * meaning of the policy.
+     */
+    private enum Ordering {
+        ORDERED(false, false),
+        STATEMENTS(true, false),
+        SET(true, true),
+        PRINCIPAL(false, false);
+
+        private final boolean sorted;
+        private final boolean distinct;
+
+        Ordering(boolean sorted, boolean distinct) {
+            this.sorted = sorted;
+            this.distinct = distinct;
+        }
+
+        private Ordering of(String key) {
+            if (this == PRINCIPAL) {
+                // e.g. "Principal": {"AWS": [...], "Service": [...]}
+                return SET;
+            }
+            if (STATEMENT_KEY.equals(key)) {
+                return STATEMENTS;
+            }
+            if (UNORDERED_KEYS.contains(key)) {
+                return SET;
+            }
+            return PRINCIPAL_KEYS.contains(key) ? PRINCIPAL : ORDERED;
+        }
+
+        private Ordering ofElements() {
+            // the contents of a statement or of a nested array follow their own keys
+            return this == SET ? SET : ORDERED;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads and writes registry policy documents with Jackson's streaming API, straight from and to
+ * the plain {@link Map}, {@link List} and scalar values held by {@link ResourceModel#getPolicy()}.
+ * This is the only JSON stack the handlers use for policies.
+ */
+final class PolicyCodec {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private PolicyCodec() {
+    }
+
+    /**
+     * Parses a policy document into a mutable, insertion-ordered map.
+     */
+    static Map<String, Object> parse(final String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Policy document must be a JSON object");
+            }
+            final Map<String, Object> policy = readObject(parser);
+            ensureFullyConsumed(parser);
+            return policy;
+        }
+    }
+
+    /**
+     * Writes a policy document as compact JSON.
+     */
+    static String write(final Object policy) throws IOException {
+        final StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            writeValue(generator, policy);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes a policy document as compact UTF-8 JSON to {@code out}, without buffering it as a string.
+     */
+    static void write(final Object policy, final OutputStream out) throws IOException {
+        try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+            writeValue(generator, policy);
+        }
+    }
+
+    private static Map<String, Object> readObject(final JsonParser parser) throws IOException {
+        final Map<String, Object> object = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            object.put(name, readValue(parser));
+        }
+        return object;
+    }
+
+    private static List<Object> readArray(final JsonParser parser) throws IOException {
+        final List<Object> array = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            array.add(readValue(parser));
+        }
+        return array;
+    }
+
+    private static Object readValue(final JsonParser parser) throws IOException {
+        switch (parser.getCurrentToken()) {
+            case START_OBJECT:
+                return readObject(parser);
+            case START_ARRAY:
+                return readArray(parser);
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new JsonParseException(parser, "Unexpected token " + parser.getCurrentToken());
+        }
+    }
+
+    private static void writeValue(final JsonGenerator generator, final Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof List) {
+            generator.writeStartArray();
+            for (Object element : (List<?>) value) {
+                writeValue(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(value.toString());
+        } else {
+            throw new JsonGenerationException("Unsupported policy value of type " + value.getClass().getName(), generator);
+        }
+    }
+
+    private static void ensureFullyConsumed(final JsonParser parser) throws IOException {
+        if (parser.nextToken() != null) {
+            throw new JsonParseException(parser, "Unexpected content after the policy document");
+        }
+    }
+}
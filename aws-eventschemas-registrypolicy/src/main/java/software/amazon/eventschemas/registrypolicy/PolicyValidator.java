@@ -0,0 +1,270 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+/**
+ * Checks the structure of a resource policy before any call is made, so that a malformed policy
+ * fails at once with a message pointing at the offending element rather than after the
+ * pre-flight calls, with whatever the service reports:
+ * <ul>
+ *     <li>the document is an object of {@code Version}, {@code Id} and {@code Statement}, at most
+ *     {@value #MAX_POLICY_LENGTH} characters long once serialized</li>
+ *     <li>{@code Version}, if any, is one the policy language knows</li>
+ *     <li>{@code Statement} is a statement or a non-empty array of statements</li>
+ *     <li>every statement has an {@code Effect} of {@code Allow} or {@code Deny}, exactly one of
+ *     {@code Principal} and {@code NotPrincipal}, exactly one of {@code Action} and
+ *     {@code NotAction}, at most one of {@code Resource} and {@code NotResource}, and nothing else
+ *     but {@code Sid} and {@code Condition}</li>
+ * </ul>
+ * The document is walked in place: nothing is serialized or copied, and messages are only
+ * formatted for the element that fails.
+ */
+final class PolicyValidator {
+
+    static final int MAX_POLICY_LENGTH = 20_480;
+
+    private static final Set<String> VERSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "2012-10-17", "2008-10-17")));
+    private static final Set<String> STATEMENT_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Sid", "Effect", "Principal", "NotPrincipal", "Action", "NotAction", "Resource", "NotResource", "Condition")));
+    private static final Set<String> PRINCIPAL_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "AWS", "Service", "Federated", "CanonicalUser")));
+
+    private PolicyValidator() {
+    }
+
+    /**
+     * @throws CfnInvalidRequestException if {@code policy} is not a valid resource policy; a
+     *                                    missing policy is left to the resource schema
+     */
+    static void validate(Object policy) {
+        validate(policy, MAX_POLICY_LENGTH);
+    }
+
+    static void validate(Object policy, long maxLength) {
+        if (policy == null) {
+            return;
+        }
+        if (!(policy instanceof Map)) {
+            throw invalid("Policy must be a JSON object");
+        }
+        if (length(policy, maxLength) > maxLength) {
+            throw invalid(String.format("Policy must be at most %d characters long", maxLength));
+        }
+
+        boolean hasStatement = false;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) policy).entrySet()) {
+            final Object key = entry.getKey();
+            final Object value = entry.getValue();
+            if ("Version".equals(key)) {
+                if (!VERSIONS.contains(value)) {
+                    throw invalid(String.format("Version must be 2012-10-17 or 2008-10-17, not [%s]", value));
+                }
+            } else if ("Id".equals(key)) {
+                if (!(value instanceof String)) {
+                    throw invalid("Id must be a string");
+                }
+            } else if ("Statement".equals(key)) {
+                validateStatements(value);
+                hasStatement = true;
+            } else {
+                throw invalid(String.format("Policy has unknown element [%s]", key));
+            }
+        }
+        if (!hasStatement) {
+            throw invalid("Policy must have a Statement");
+        }
+    }
+
+    private static void validateStatements(Object statements) {
+        if (statements instanceof Map) {
+            validateStatement(statements, -1);
+        } else if (statements instanceof List) {
+            final List<?> list = (List<?>) statements;
+            if (list.isEmpty()) {
+                throw invalid("Statement must not be empty");
+            }
+            for (int i = 0; i < list.size(); i++) {
+                validateStatement(list.get(i), i);
+            }
+        } else {
+            throw invalid("Statement must be a JSON object or an array of them");
+        }
+    }
+
+    private static void validateStatement(Object statement, int index) {
+        if (!(statement instanceof Map)) {
+            throw invalid(String.format("%s must be a JSON object", path(index, null)));
+        }
+        final Map<?, ?> elements = (Map<?, ?>) statement;
+        for (Object key : elements.keySet()) {
+            if (!STATEMENT_KEYS.contains(key)) {
+                throw invalid(String.format("%s has unknown element [%s]", path(index, null), key));
+            }
+        }
+
+        final Object effect = elements.get("Effect");
+        if (!"Allow".equals(effect) && !"Deny".equals(effect)) {
+            throw invalid(String.format("%s must be Allow or Deny, not [%s]", path(index, "Effect"), effect));
+        }
+
+        final String principalKey = exactlyOne(elements, index, "Principal", "NotPrincipal", true);
+        validatePrincipal(elements.get(principalKey), index, principalKey);
+
+        final String actionKey = exactlyOne(elements, index, "Action", "NotAction", true);
+        validateStrings(elements.get(actionKey), index, actionKey);
+
+        final String resourceKey = exactlyOne(elements, index, "Resource", "NotResource", false);
+        if (resourceKey != null) {
+            validateStrings(elements.get(resourceKey), index, resourceKey);
+        }
+
+        final Object sid = elements.get("Sid");
+        if (sid != null && !(sid instanceof String)) {
+            throw invalid(String.format("%s must be a string", path(index, "Sid")));
+        }
+
+        final Object condition = elements.get("Condition");
+        if (condition != null) {
+            if (!(condition instanceof Map)) {
+                throw invalid(String.format("%s must be a JSON object", path(index, "Condition")));
+            }
+            for (Map.Entry<?, ?> operator : ((Map<?, ?>) condition).entrySet()) {
+                if (!(operator.getValue() instanceof Map)) {
+                    throw invalid(String.format("%s operator [%s] must be a JSON object", path(index, "Condition"), operator.getKey()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Which of the two mutually exclusive elements the statement has, or {@code null} if it has
+     * neither and neither is required.
+     */
+    private static String exactlyOne(Map<?, ?> elements, int index, String key, String notKey, boolean required) {
+        final boolean hasKey = elements.containsKey(key);
+        final boolean hasNotKey = elements.containsKey(notKey);
+        if (hasKey && hasNotKey) {
+            throw invalid(String.format("%s cannot have both %s and %s", path(index, null), key, notKey));
+        }
+        if (!hasKey && !hasNotKey) {
+            if (required) {
+                throw invalid(String.format("%s must have %s or %s", path(index, null), key, notKey));
+            }
+            return null;
+        }
+        return hasKey ? key : notKey;
+    }
+
+    private static void validatePrincipal(Object principal, int index, String key) {
+        if ("*".equals(principal)) {
+            return;
+        }
+        if (!(principal instanceof Map) || ((Map<?, ?>) principal).isEmpty()) {
+            throw invalid(String.format("%s must be \"*\" or a JSON object of principals by type", path(index, key)));
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) principal).entrySet()) {
+            if (!PRINCIPAL_TYPES.contains(entry.getKey())) {
+                throw invalid(String.format("%s has unknown principal type [%s], expected AWS, Service, Federated or CanonicalUser",
+                        path(index, key), entry.getKey()));
+            }
+            validateStrings(entry.getValue(), index, key + "." + entry.getKey());
+        }
+    }
+
+    /**
+     * Checks that {@code value} is a string or a non-empty array of strings.
+     */
+    private static void validateStrings(Object value, int index, String key) {
+        if (value instanceof String) {
+            return;
+        }
+        if (value instanceof List && !((List<?>) value).isEmpty()) {
+            for (Object element : (List<?>) value) {
+                if (!(element instanceof String)) {
+                    throw invalid(String.format("%s must only contain strings, not [%s]", path(index, key), element));
+                }
+            }
+            return;
+        }
+        throw invalid(String.format("%s must be a string or a non-empty array of strings", path(index, key)));
+    }
+
+    /**
+     * Length of {@code value} serialized as compact JSON, counted without serializing it. Stops
+     * counting once past {@code limit}.
+     */
+    private static long length(Object value, long limit) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof String) {
+            return stringLength((String) value);
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 4 : 5;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return digits(((Number) value).longValue());
+        }
+        if (value instanceof Map) {
+            long length = 2 + Math.max(0, ((Map<?, ?>) value).size() - 1);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                length += stringLength(String.valueOf(entry.getKey())) + 1 + length(entry.getValue(), limit - length);
+                if (length > limit) {
+                    return length;
+                }
+            }
+            return length;
+        }
+        if (value instanceof List) {
+            long length = 2 + Math.max(0, ((List<?>) value).size() - 1);
+            for (Object element : (List<?>) value) {
+                length += length(element, limit - length);
+                if (length > limit) {
+                    return length;
+                }
+            }
+            return length;
+        }
+        return String.valueOf(value).length();
+    }
+
+    // quotes plus escapes, as JsonGenerator writes them
+    private static long stringLength(String value) {
+        long length = 2 + value.length();
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t') {
+                length += 1;
+            } else if (c < 0x20) {
+                length += 5;
+            }
+        }
+        return length;
+    }
+
+    private static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        for (long remaining = Math.abs(value / 10); remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static String path(int index, String key) {
+        final String statement = index < 0 ? "Statement" : "Statement[" + index + "]";
+        return key == null ? statement : statement + "." + key;
+    }
+
+    private static CfnInvalidRequestException invalid(String message) {
+        return new CfnInvalidRequestException(message);
+    }
+}
@@ -0,0 +1,216 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.auth.signer.Aws4Signer;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.signer.Signer;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
+import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesRequest;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.cloudformation.proxy.HandlerRequest;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.resource.Serializer;
+import software.amazon.cloudformation.resource.Validator;
+
+/**
+ * Runs the code paths of a first invocation once, without calling the service, so the classes
+ * they load and the JIT profile they build are in place before the first real request: policy
+ * validation, parsing and digesting, the wrapper's request deserialization, schema validation and
+ * response serialization, and the marshalling and signing of every Schemas request the handlers
+ * send. Requests go through the shared clients of {@link ClientBuilder}, which the first invocation
+ * then finds built, with static credentials and a signer that aborts them once they are signed.
+ *
+ * Priming runs once per container, either from the warm-up entrypoint {@link WarmupEntrypoint} or
+ * while HandlerWrapper instantiates the handlers in the Lambda init phase. The latter only happens
+ * where init is not on the path of a request, i.e. when {@value #INITIALIZATION_TYPE_ENV} is
+ * {@code snap-start} or {@code provisioned-concurrency}, or when {@value #PRIME_ON_INIT_ENV} is
+ * {@code true}; {@code false} turns it off everywhere. An on-demand container thus keeps building
+ * the clients lazily, on the first call that needs one.
+ * Priming is best effort: a step that fails is skipped, reported by {@link #prime()}, and never
+ * fails the caller.
+ */
+final class Primer {
+
+    static final String PRIME_ON_INIT_ENV = "SCHEMAS_PRIME_ON_INIT";
+    static final String INITIALIZATION_TYPE_ENV = "AWS_LAMBDA_INITIALIZATION_TYPE";
+
+    private static final String SCHEMA_RESOURCE = "/aws-eventschemas-registrypolicy.json";
+    private static final String REGISTRY_NAME = "priming-registry";
+    private static final String POLICY = "{\"Version\":\"2012-10-17\",\"Statement\":[{"
+            + "\"Sid\":\"Priming\",\"Effect\":\"Allow\",\"Principal\":{\"AWS\":\"arn:aws:iam::123456789012:root\"},"
+            + "\"Action\":[\"schemas:DescribeSchema\",\"schemas:ListSchemas\"],"
+            + "\"Resource\":\"arn:aws:schemas:us-east-1:123456789012:registry/priming-registry\"}]}";
+    private static final String REQUEST = "{\"action\":\"CREATE\",\"awsAccountId\":\"123456789012\","
+            + "\"bearerToken\":\"priming\",\"region\":\"us-east-1\",\"resourceType\":\"" + ResourceModel.TYPE_NAME + "\","
+            + "\"resourceTypeVersion\":\"00000001\",\"stackId\":\"priming\",\"requestData\":{"
+            + "\"callerCredentials\":{\"accessKeyId\":\"priming\",\"secretAccessKey\":\"priming\",\"sessionToken\":\"priming\"},"
+            + "\"logicalResourceId\":\"Priming\",\"resourceProperties\":{\"RegistryName\":\"" + REGISTRY_NAME + "\","
+            + "\"Policy\":" + POLICY + "},\"previousResourceProperties\":null},"
+            + "\"requestContext\":{\"invocation\":2,\"callbackContext\":{\"p\":\"STABILIZE\",\"r\":\"1\",\"t\":1,\"a\":1}}}";
+    private static final TypeReference<HandlerRequest<ResourceModel, CallbackContext>> REQUEST_TYPE =
+            new TypeReference<HandlerRequest<ResourceModel, CallbackContext>>() { };
+
+    private static List<String> failedSteps;
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private Primer() {
+    }
+
+    /**
+     * Primes from static initialization, if {@link #shouldPrimeOnInit(Function)} says so.
+     */
+    static void primeOnInit() {
+        if (shouldPrimeOnInit(System::getenv)) {
+            prime();
+        }
+    }
+
+    static boolean shouldPrimeOnInit(Function<String, String> environment) {
+        final String primeOnInit = environment.apply(PRIME_ON_INIT_ENV);
+        if (primeOnInit != null) {
+            return Boolean.parseBoolean(primeOnInit.trim());
+        }
+        final String initializationType = environment.apply(INITIALIZATION_TYPE_ENV);
+        return "snap-start".equals(initializationType) || "provisioned-concurrency".equals(initializationType);
+    }
+
+    /**
+     * Runs every step the first time it is called, and returns the names of the steps that failed.
+     */
+    static synchronized List<String> prime() {
+        if (failedSteps == null) {
+            final List<String> failed = new ArrayList<>();
+            for (Map.Entry<String, Step> step : steps().entrySet()) {
+                try {
+                    step.getValue().run();
+                } catch (Exception | LinkageError e) {
+                    failed.add(step.getKey());
+                }
+            }
+            failedSteps = Collections.unmodifiableList(failed);
+        }
+        return failedSteps;
+    }
+
+    private static Map<String, Step> steps() {
+        final Serializer serializer = new Serializer();
+        final Map<String, Step> steps = new LinkedHashMap<>();
+        steps.put("policy", () -> {
+            final Map<String, Object> policy = PolicyCodec.parse(POLICY);
+            PolicyValidator.validate(policy);
+            PolicyCanonicalizer.digest(policy);
+            PolicyCodec.write(policy);
+        });
+        steps.put("request", () -> {
+            final HandlerRequest<ResourceModel, CallbackContext> request = serializer.deserialize(REQUEST, REQUEST_TYPE);
+            final ResourceModel model = request.getRequestData().getResourceProperties();
+            serializer.serialize(ProgressEvent.<ResourceModel, CallbackContext>builder()
+                    .resourceModel(model)
+                    .callbackContext(request.getRequestContext().getCallbackContext())
+                    .callbackDelaySeconds(30)
+                    .status(OperationStatus.IN_PROGRESS)
+                    .build());
+        });
+        steps.put("schema", () -> {
+            try (InputStream schema = Primer.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+                final JSONObject model = new JSONObject(REQUEST).getJSONObject("requestData").getJSONObject("resourceProperties");
+                new Validator().validateObject(model, new JSONObject(new JSONTokener(schema)));
+            }
+        });
+        steps.put("metrics", () -> new Metrics("Priming").toEmf());
+        steps.put("requests", Primer::marshalRequests);
+        return steps;
+    }
+
+    /**
+     * Marshals and signs one request of each operation the handlers call, on the client of the
+     * {@link ExecutionMode}, the only one the handlers will use.
+     */
+    private static void marshalRequests() {
+        final AwsRequestOverrideConfiguration configuration = AwsRequestOverrideConfiguration.builder()
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("priming", "priming")))
+                .signer(new AbortAfterSigning())
+                .build();
+        final DescribeRegistryRequest describeRegistry = DescribeRegistryRequest.builder()
+                .registryName(REGISTRY_NAME).overrideConfiguration(configuration).build();
+        final GetResourcePolicyRequest getResourcePolicy = GetResourcePolicyRequest.builder()
+                .registryName(REGISTRY_NAME).overrideConfiguration(configuration).build();
+        final PutResourcePolicyRequest putResourcePolicy = PutResourcePolicyRequest.builder()
+                .registryName(REGISTRY_NAME).policy(POLICY).revisionId("1").overrideConfiguration(configuration).build();
+        final DeleteResourcePolicyRequest deleteResourcePolicy = DeleteResourcePolicyRequest.builder()
+                .registryName(REGISTRY_NAME).overrideConfiguration(configuration).build();
+        final ListRegistriesRequest listRegistries = ListRegistriesRequest.builder()
+                .scope("LOCAL").overrideConfiguration(configuration).build();
+
+        if (ClientBuilder.getExecutionMode() == ExecutionMode.ASYNC) {
+            final SchemasAsyncClient client = ClientBuilder.getSchemasAsyncClient();
+            abort(() -> client.describeRegistry(describeRegistry).join());
+            abort(() -> client.getResourcePolicy(getResourcePolicy).join());
+            abort(() -> client.putResourcePolicy(putResourcePolicy).join());
+            abort(() -> client.deleteResourcePolicy(deleteResourcePolicy).join());
+            abort(() -> client.listRegistries(listRegistries).join());
+        } else {
+            final SchemasClient client = ClientBuilder.getSchemasClient();
+            abort(() -> client.describeRegistry(describeRegistry));
+            abort(() -> client.getResourcePolicy(getResourcePolicy));
+            abort(() -> client.putResourcePolicy(putResourcePolicy));
+            abort(() -> client.deleteResourcePolicy(deleteResourcePolicy));
+            abort(() -> client.listRegistries(listRegistries));
+        }
+    }
+
+    private static void abort(Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof Aborted) {
+                    return;
+                }
+            }
+            throw e;
+        }
+        throw new IllegalStateException("Priming request was not aborted");
+    }
+
+    private static final class AbortAfterSigning implements Signer {
+        private final Signer signer = Aws4Signer.create();
+
+        @Override
+        public SdkHttpFullRequest sign(SdkHttpFullRequest request, ExecutionAttributes executionAttributes) {
+            signer.sign(request, executionAttributes);
+            throw new Aborted();
+        }
+    }
+
+    private static final class Aborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Aborted() {
+            super("Priming request aborted after signing", null, false, false);
+        }
+    }
+}
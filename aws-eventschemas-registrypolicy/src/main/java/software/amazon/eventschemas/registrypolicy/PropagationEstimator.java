@@ -0,0 +1,84 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Learns how long writes take to become visible, per operation, and picks the delay of the next
+ * callback from it instead of a fixed {@value #DEFAULT_CALLBACK_DELAY_SECONDS} seconds.
+ *
+ * Handlers record the time from a write to the read that observed it. When an operation has to
+ * call back, the delay is the configured percentile of the latencies slower than the time already
+ * elapsed since the write, minus that time. It stays between {@value #MIN_CALLBACK_DELAY_SECONDS}
+ * second and the time left before the stabilization timeout, since a later callback could only
+ * fail. Without such samples, or with a percentile of 0, the delay is the default.
+ *
+ * The histograms live in the container; the callback context carries a snapshot, which a
+ * container that has not recorded anything yet adopts.
+ */
+class PropagationEstimator {
+
+    static final int DEFAULT_CALLBACK_DELAY_SECONDS = 30;
+    static final int MIN_CALLBACK_DELAY_SECONDS = 1;
+
+    private final double percentile;
+    private final LongSupplier clock;
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    PropagationEstimator(final double percentile, final LongSupplier clock) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Percentile %s is not between 0 and 100", percentile));
+        }
+        this.percentile = percentile;
+        this.clock = clock;
+    }
+
+    boolean isEnabled() {
+        return percentile > 0;
+    }
+
+    /**
+     * Records that a write of {@code operation}, made when {@code context} entered its
+     * stabilization phase, became visible now.
+     */
+    void stabilized(final String operation, final CallbackContext context) {
+        if (isEnabled()) {
+            histogram(operation).record(Math.max(0L, clock.getAsLong() - context.getPhaseStartedAt()));
+        }
+    }
+
+    /**
+     * Adopts the snapshot carried by {@code context}, if this container knows nothing yet.
+     */
+    void seed(final String operation, final CallbackContext context) {
+        if (isEnabled() && context.getPropagation() != null) {
+            histogram(operation).seed(context.getPropagation());
+        }
+    }
+
+    /**
+     * Returns the delay of the next callback of a write of {@code operation} that has not become
+     * visible yet, and stores a snapshot of what is known into {@code context}.
+     */
+    int callbackDelaySeconds(final String operation, final CallbackContext context, final long timeoutMillis) {
+        if (!isEnabled()) {
+            return DEFAULT_CALLBACK_DELAY_SECONDS;
+        }
+        final LatencyHistogram histogram = histogram(operation);
+        context.setPropagation(histogram.snapshot());
+
+        final long elapsedMillis = Math.max(0L, clock.getAsLong() - context.getPhaseStartedAt());
+        final long latencyMillis = histogram.percentileAfter(percentile, elapsedMillis, timeoutMillis);
+        if (latencyMillis < 0) {
+            return DEFAULT_CALLBACK_DELAY_SECONDS;
+        }
+        final long remainingSeconds = (timeoutMillis - elapsedMillis) / 1000L;
+        final long delaySeconds = (latencyMillis - elapsedMillis + 999L) / 1000L;
+        return (int) Math.max(MIN_CALLBACK_DELAY_SECONDS, Math.min(delaySeconds, remainingSeconds));
+    }
+
+    private LatencyHistogram histogram(final String operation) {
+        return histograms.computeIfAbsent(operation, key -> new LatencyHistogram());
+    }
+}
@@ -0,0 +1,16 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+
+/**
+ * Thrown when a call would have to wait for a {@link RateLimiter} token longer than the invocation
+ * can afford.
+ */
+class RateLimitedException extends TransientException {
+
+    private static final long serialVersionUID = 1L;
+
+    RateLimitedException(final String operation) {
+        super(String.format("%s rate limit reached", operation), HandlerErrorCode.Throttling, null);
+    }
+}
@@ -0,0 +1,110 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket per Schemas operation, shared by every handler in the container through
+ * {@link ClientBuilder#getRateLimiter()}, so that many resources deployed at once do not turn into
+ * a throttling storm.
+ *
+ * Each bucket is kept as a single theoretical arrival time (the GCRA form of a token bucket), so
+ * taking a token is one compare-and-set and never blocks other callers. Callers that find the
+ * bucket empty sleep until their token is due, as long as that is within the wait they can afford.
+ */
+class RateLimiter {
+
+    /**
+     * Operation name matching every operation without a limit of its own.
+     */
+    static final String ANY_OPERATION = "*";
+
+    private final Map<String, Double> permitsPerSecond;
+    private final LongSupplier nanoClock;
+    private final Stabilizer.Sleeper sleeper;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param permitsPerSecond sustained rate per operation name, or for {@value #ANY_OPERATION};
+     *                         operations without a positive rate are not limited
+     */
+    RateLimiter(final Map<String, Double> permitsPerSecond, final LongSupplier nanoClock, final Stabilizer.Sleeper sleeper) {
+        this.permitsPerSecond = Collections.unmodifiableMap(permitsPerSecond);
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+    }
+
+    static RateLimiter unlimited() {
+        return new RateLimiter(Collections.emptyMap(), System::nanoTime, Thread::sleep);
+    }
+
+    /**
+     * Takes a token for {@code operation}, sleeping until it is due.
+     *
+     * @return the time spent waiting in nanoseconds, or -1 if the token is due later than
+     *         {@code maxWaitNanos} from now, in which case no token is taken
+     */
+    long acquire(final String operation, final long maxWaitNanos) {
+        final Bucket bucket = bucket(operation);
+        if (bucket == null) {
+            return 0;
+        }
+        final long waitNanos = bucket.reserve(nanoClock.getAsLong(), maxWaitNanos);
+        if (waitNanos > 0) {
+            try {
+                sleeper.sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return waitNanos;
+    }
+
+    private Bucket bucket(final String operation) {
+        final Bucket bucket = buckets.get(operation);
+        if (bucket != null) {
+            return bucket == Bucket.UNLIMITED ? null : bucket;
+        }
+        Double rate = permitsPerSecond.get(operation);
+        if (rate == null) {
+            rate = permitsPerSecond.get(ANY_OPERATION);
+        }
+        final Bucket created = rate == null || rate <= 0 ? Bucket.UNLIMITED : new Bucket(rate);
+        final Bucket existing = buckets.putIfAbsent(operation, created);
+        final Bucket result = existing == null ? created : existing;
+        return result == Bucket.UNLIMITED ? null : result;
+    }
+
+    private static final class Bucket {
+        private static final Bucket UNLIMITED = new Bucket(Double.POSITIVE_INFINITY);
+
+        // time between two tokens, and how far ahead of its schedule the bucket may run (its burst)
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+
+        private Bucket(final double permitsPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+            // a full bucket holds one second of tokens, and at least one
+            this.burstNanos = intervalNanos * (Math.max(1, (long) Math.ceil(permitsPerSecond)) - 1);
+        }
+
+        private long reserve(final long nowNanos, final long maxWaitNanos) {
+            while (true) {
+                final long current = theoreticalArrivalNanos.get();
+                final long arrival = current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos);
+                final long waitNanos = Math.max(0, arrival - burstNanos - nowNanos);
+                if (waitNanos > maxWaitNanos) {
+                    return -1;
+                }
+                if (theoreticalArrivalNanos.compareAndSet(current, arrival + intervalNanos)) {
+                    return waitNanos;
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package software.amazon.eventschemas.registrypolicy;
 
-import org.json.JSONObject;
+import java.io.IOException;
+import java.util.Map;
+
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.SchemasException;
@@ -10,14 +14,22 @@ import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.awssdk.services.schemas.model.NotFoundException;
 
+import static software.amazon.eventschemas.registrypolicy.SchemasCaller.join;
 import static software.amazon.eventschemas.registrypolicy.ResourceModel.TYPE_NAME;
 
 public class ReadHandler extends BaseHandler<CallbackContext> {
 
-    private final SchemasClient schemasClient = ClientBuilder.getSchemasClient();
+    private final Deadline.Factory deadlines;
+
+    public ReadHandler() {
+        this(Deadline::of);
+    }
+
+    ReadHandler(final Deadline.Factory deadlines) {
+        this.deadlines = deadlines;
+    }
 
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -26,20 +38,34 @@ public class ReadHandler extends BaseHandler<CallbackContext> {
             final CallbackContext callbackContext,
             final Logger logger) {
 
+        final Metrics metrics = new Metrics("Read");
+        final SchemasCaller caller = new SchemasCaller(metrics, deadlines.of(proxy));
+        return PhaseRunner.runOnce(metrics, logger, request.getDesiredResourceState(), callbackContext,
+                () -> handleRequest(proxy, request, callbackContext, logger, caller));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext callbackContext,
+            final Logger logger,
+            final SchemasCaller caller) {
+
         final ResourceModel resourceModel = request.getDesiredResourceState();
         final String registryName = resourceModel.getId();
 
         GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
 
         try {
-            GetResourcePolicyResponse getResourcePolicyResponse = proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, schemasClient::getResourcePolicy);
-            JSONObject policyObject = new JSONObject(getResourcePolicyResponse.policy());
-
-            resourceModel.setPolicy(policyObject.toMap());
+            GetResourcePolicyResponse getResourcePolicyResponse = join(caller.call(proxy, getResourcePolicyRequest,
+                    SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy));
+            final Map<String, Object> policy = PolicyCodec.parse(getResourcePolicyResponse.policy());
+            resourceModel.setPolicy(policy);
+            resourceModel.setPolicyDigest(PolicyCanonicalizer.digest(policy));
             resourceModel.setRevisionId(getResourcePolicyResponse.revisionId());
         } catch (NotFoundException e) {
             throw new CfnNotFoundException(TYPE_NAME, registryName, e);
-        } catch (SchemasException e) {
+        } catch (SchemasException | IOException e) {
             throw new CfnGeneralServiceException("GetPolicy", e);
         }
 
@@ -0,0 +1,66 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers for a short while which registries {@code DescribeRegistry} found, so that creating
+ * many policies in the same few registries does not describe them again for every resource.
+ * Only positive results are kept. Entries expire after the TTL, the least recently used ones are
+ * evicted past the size limit, and callers invalidate a registry as soon as a call reports it
+ * missing. A TTL or size of 0 disables the cache.
+ */
+class RegistryCache {
+
+    private final long ttlMillis;
+    private final int maxSize;
+    private final LongSupplier clock;
+
+    // registry name to expiry time, in access order
+    private final LinkedHashMap<String, Long> expiries;
+
+    RegistryCache(final long ttlMillis, final int maxSize, final LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.clock = clock;
+        this.expiries = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                return size() > RegistryCache.this.maxSize;
+            }
+        };
+    }
+
+    static RegistryCache disabled() {
+        return new RegistryCache(0, 0, System::currentTimeMillis);
+    }
+
+    boolean isEnabled() {
+        return ttlMillis > 0 && maxSize > 0;
+    }
+
+    synchronized boolean contains(final String registryName) {
+        final Long expiry = expiries.get(registryName);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry <= clock.getAsLong()) {
+            expiries.remove(registryName);
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void put(final String registryName) {
+        if (isEnabled()) {
+            expiries.put(registryName, clock.getAsLong() + ttlMillis);
+        }
+    }
+
+    synchronized void invalidate(final String registryName) {
+        expiries.remove(registryName);
+    }
+}
@@ -0,0 +1,18 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+
+/**
+ * Thrown when a call still fails with a retryable error or throttling after the last attempt
+ * allowed by the {@link RetryPolicy}. The last error is the cause.
+ */
+class RetriesExhaustedException extends TransientException {
+
+    private static final long serialVersionUID = 1L;
+
+    RetriesExhaustedException(final String operation, final int attempts, final ErrorClassifier.Category category, final Throwable cause) {
+        super(String.format("%s failed %d time(s): %s", operation, attempts, cause.getMessage()),
+                category == ErrorClassifier.Category.THROTTLING ? HandlerErrorCode.Throttling : HandlerErrorCode.ServiceInternalError,
+                cause);
+    }
+}
@@ -0,0 +1,67 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * How often, and after how long, a Schemas call failing with a retryable error or throttling (see
+ * {@link ErrorClassifier}) is attempted again inside the invocation. Delays use decorrelated
+ * jitter: each one is drawn between the base delay and three times the previous one, so callers
+ * that failed together do not retry together.
+ */
+@Builder
+class RetryPolicy {
+
+    static final int DEFAULT_MAX_ATTEMPTS = 3;
+    static final long DEFAULT_BASE_DELAY_MILLIS = 100L;
+    static final long DEFAULT_MAX_DELAY_MILLIS = 2_000L;
+
+    // async retries wait on their own threads, never on the SDK's completion threads
+    private static final ExecutorService DELAY_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "schemas-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Getter
+    @Builder.Default
+    private final int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+    @Builder.Default
+    private final long baseDelayMillis = DEFAULT_BASE_DELAY_MILLIS;
+
+    @Builder.Default
+    private final long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+    @Builder.Default
+    private final Stabilizer.Sleeper sleeper = Thread::sleep;
+
+    boolean shouldRetry(final ErrorClassifier.Category category, final int attempts) {
+        return category != ErrorClassifier.Category.TERMINAL && attempts < maxAttempts;
+    }
+
+    /**
+     * Delay before the next attempt, given the delay before the previous one (0 for the first retry).
+     */
+    long nextDelayMillis(final long previousDelayMillis) {
+        final long upper = Math.max(baseDelayMillis, previousDelayMillis * 3);
+        return Math.min(maxDelayMillis, baseDelayMillis + ThreadLocalRandom.current().nextLong(upper - baseDelayMillis + 1));
+    }
+
+    void sleep(final long millis) {
+        try {
+            sleeper.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    CompletableFuture<Void> delay(final long millis) {
+        return CompletableFuture.runAsync(() -> sleep(millis), DELAY_EXECUTOR);
+    }
+}
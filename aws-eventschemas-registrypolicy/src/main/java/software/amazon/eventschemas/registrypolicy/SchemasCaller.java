@@ -0,0 +1,199 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import lombok.Getter;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+
+/**
+ * Makes the Schemas calls of a single handler invocation, each one recorded in its {@link Metrics}.
+ *
+ * Every call first takes a token from the shared {@link RateLimiter}. An invocation waits for
+ * tokens for at most {@value #RATE_LIMIT_WAIT_BUDGET_MILLIS} ms in total, and never so long that the
+ * call could not start before its {@link Deadline}; a call that would wait longer throws
+ * {@link RateLimitedException} instead.
+ *
+ * Calls failing with a retryable error or throttling are attempted again as the {@link RetryPolicy}
+ * allows, each attempt recorded on its own. Once attempts run out the call throws
+ * {@link RetriesExhaustedException}; terminal errors are thrown as they are.
+ *
+ * Every attempt is checked against, and sent with the timeouts of, the invocation's {@link Deadline}.
+ *
+ * Handlers make their calls through {@link #call}, on the client of the {@link ExecutionMode}.
+ */
+final class SchemasCaller {
+
+    static final long RATE_LIMIT_WAIT_BUDGET_MILLIS = 5_000;
+
+    private final Metrics metrics;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final LongSupplier nanoClock;
+    private final ExecutionMode executionMode;
+    @Getter
+    private final Deadline deadline;
+
+    private long rateLimitWaitNanos;
+
+    SchemasCaller(final Metrics metrics, final Deadline deadline) {
+        this(metrics, ClientBuilder.getRateLimiter(), RetryPolicy.builder().build(), System::nanoTime,
+                ClientBuilder.getExecutionMode(), deadline);
+    }
+
+    SchemasCaller(final Metrics metrics, final RateLimiter rateLimiter, final RetryPolicy retryPolicy,
+                  final LongSupplier nanoClock, final ExecutionMode executionMode, final Deadline deadline) {
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.nanoClock = nanoClock;
+        this.executionMode = executionMode;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Makes a call on the client of the {@link ExecutionMode}: on the blocking client through
+     * {@link #invoke} before returning, or on the async client through {@link #invokeAsync}. Either
+     * way the response, or the error, ends up in the returned future, so a handler can start a call
+     * as soon as it has the request and {@link #join} it where it needs the response.
+     */
+    <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT> call(
+            final AmazonWebServicesClientProxy proxy,
+            final RequestT request,
+            final BiFunction<SchemasClient, RequestT, ResponseT> syncFunction,
+            final BiFunction<SchemasAsyncClient, RequestT, CompletableFuture<ResponseT>> asyncFunction) {
+        if (executionMode == ExecutionMode.ASYNC) {
+            return invokeAsync(proxy, request, asyncRequest -> asyncFunction.apply(ClientBuilder.getSchemasAsyncClient(), asyncRequest));
+        }
+        final CompletableFuture<ResponseT> result = new CompletableFuture<>();
+        try {
+            result.complete(invoke(proxy, request, syncRequest -> syncFunction.apply(ClientBuilder.getSchemasClient(), syncRequest)));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the future and rethrows the exception it failed with, so that callers can map it
+     * exactly like the result of a blocking call.
+     */
+    static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT invoke(
+            final AmazonWebServicesClientProxy proxy,
+            final RequestT request,
+            final Function<RequestT, ResponseT> requestFunction) {
+        long delayMillis = 0;
+        for (int attempts = 1; ; attempts++) {
+            deadline.check(Metrics.operationName(request));
+            throttle(request);
+            final long start = nanoClock.getAsLong();
+            try {
+                final ResponseT response = proxy.injectCredentialsAndInvokeV2(request,
+                        wrappedRequest -> requestFunction.apply(deadline.apply(wrappedRequest)));
+                record(request, response, null, start);
+                return response;
+            } catch (RuntimeException e) {
+                record(request, null, e, start);
+                final ErrorClassifier.Category category = ErrorClassifier.classify(e);
+                if (!retryPolicy.shouldRetry(category, attempts)) {
+                    throw category == ErrorClassifier.Category.TERMINAL
+                            ? e : new RetriesExhaustedException(Metrics.operationName(request), attempts, category, e);
+                }
+            }
+            delayMillis = retryPolicy.nextDelayMillis(delayMillis);
+            metrics.retried();
+            retryPolicy.sleep(delayMillis);
+        }
+    }
+
+    <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT> invokeAsync(
+            final AmazonWebServicesClientProxy proxy,
+            final RequestT request,
+            final Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+        return invokeAsync(proxy, request, requestFunction, 1, 0);
+    }
+
+    private <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT> invokeAsync(
+            final AmazonWebServicesClientProxy proxy,
+            final RequestT request,
+            final Function<RequestT, CompletableFuture<ResponseT>> requestFunction,
+            final int attempts,
+            final long previousDelayMillis) {
+        deadline.check(Metrics.operationName(request));
+        throttle(request);
+        final long start = nanoClock.getAsLong();
+        final CompletableFuture<ResponseT> result = new CompletableFuture<>();
+        proxy.injectCredentialsAndInvokeV2Async(request,
+                wrappedRequest -> requestFunction.apply(deadline.apply(wrappedRequest))).whenComplete((response, error) -> {
+            final Throwable cause = unwrap(error);
+            record(request, response, cause, start);
+            if (cause == null) {
+                result.complete(response);
+                return;
+            }
+            final ErrorClassifier.Category category = ErrorClassifier.classify(cause);
+            if (!retryPolicy.shouldRetry(category, attempts)) {
+                result.completeExceptionally(category == ErrorClassifier.Category.TERMINAL
+                        ? cause : new RetriesExhaustedException(Metrics.operationName(request), attempts, category, cause));
+                return;
+            }
+            final long delayMillis = retryPolicy.nextDelayMillis(previousDelayMillis);
+            metrics.retried();
+            retryPolicy.delay(delayMillis)
+                    .thenCompose(ignored -> invokeAsync(proxy, request, requestFunction, attempts + 1, delayMillis))
+                    .whenComplete((retryResponse, retryError) -> {
+                        if (retryError == null) {
+                            result.complete(retryResponse);
+                        } else {
+                            result.completeExceptionally(unwrap(retryError));
+                        }
+                    });
+        });
+        return result;
+    }
+
+    private void throttle(final AwsRequest request) {
+        final String operation = Metrics.operationName(request);
+        final long budgetNanos;
+        synchronized (this) {
+            budgetNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(RATE_LIMIT_WAIT_BUDGET_MILLIS) - rateLimitWaitNanos,
+                    TimeUnit.MILLISECONDS.toNanos(deadline.remainingMillis() - Deadline.MIN_STEP_MILLIS));
+        }
+        final long waitNanos = rateLimiter.acquire(operation, budgetNanos);
+        if (waitNanos < 0) {
+            metrics.rateLimited();
+            throw new RateLimitedException(operation);
+        }
+        synchronized (this) {
+            rateLimitWaitNanos += waitNanos;
+        }
+        metrics.rateLimitWait(waitNanos);
+    }
+
+    private void record(final AwsRequest request, final AwsResponse response, final Throwable error, final long start) {
+        metrics.call(request, response, error, (nanoClock.getAsLong() - start) / 1_000_000.0);
+    }
+
+    private static Throwable unwrap(final Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,10 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import lombok.Value;
+
+@Value
+class StabilizationResult {
+    private final boolean stabilized;
+    private final int attempts;
+    private final long waitedMillis;
+}
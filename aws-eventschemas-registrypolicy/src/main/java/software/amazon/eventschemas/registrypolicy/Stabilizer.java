@@ -0,0 +1,96 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import lombok.Builder;
+
+/**
+ * Polls a stabilization check inside the current invocation using jittered exponential
+ * backoff, until it succeeds or the time budget runs out. Callers fall back to a
+ * CloudFormation callback when the result is not stabilized.
+ */
+@Builder
+class Stabilizer {
+
+    static final long DEFAULT_BUDGET_MILLIS = 20_000L;
+    static final long DEFAULT_INITIAL_DELAY_MILLIS = 200L;
+    static final long DEFAULT_MAX_DELAY_MILLIS = 5_000L;
+
+    @Builder.Default
+    private final long budgetMillis = DEFAULT_BUDGET_MILLIS;
+
+    @Builder.Default
+    private final long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+
+    @Builder.Default
+    private final long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+
+    @Builder.Default
+    private final Sleeper sleeper = Thread::sleep;
+
+    @Builder.Default
+    private final LongSupplier clock = System::currentTimeMillis;
+
+    StabilizationResult stabilize(final BooleanSupplier check) {
+        return stabilize(check, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #stabilize(BooleanSupplier)}, but never polls past the given wall-clock deadline.
+     */
+    StabilizationResult stabilize(final BooleanSupplier check, final long deadlineMillis) {
+        final long start = clock.getAsLong();
+        final long budget = Math.min(budgetMillis, Math.max(0L, deadlineMillis - start));
+        long delay = initialDelayMillis;
+        long waitedMillis = 0;
+        int attempts = 0;
+
+        while (true) {
+            attempts++;
+            if (check.getAsBoolean()) {
+                return new StabilizationResult(true, attempts, waitedMillis);
+            }
+
+            final long sleepMillis = jitter(delay);
+            final long elapsedMillis = clock.getAsLong() - start;
+            if (elapsedMillis + sleepMillis > budget) {
+                return new StabilizationResult(false, attempts, waitedMillis);
+            }
+
+            try {
+                sleeper.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new StabilizationResult(false, attempts, waitedMillis);
+            }
+            waitedMillis += sleepMillis;
+            delay = Math.min(maxDelayMillis, delay * 2);
+        }
+    }
+
+    /**
+     * The time by the clock the polls are timed with, which phases start and expire by.
+     */
+    long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Whether the given wall-clock deadline has passed, by the same clock the polls are timed with.
+     */
+    boolean isExpired(final long deadlineMillis) {
+        return now() >= deadlineMillis;
+    }
+
+    // "equal jitter": keep half of the backoff and randomise the other half
+    private static long jitter(final long delay) {
+        final long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
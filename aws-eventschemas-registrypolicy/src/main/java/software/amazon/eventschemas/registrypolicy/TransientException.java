@@ -0,0 +1,22 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import lombok.Getter;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+
+/**
+ * A Schemas call that could not be made, or kept failing, for reasons that are expected to pass.
+ * Handlers that can be called back yield with a short callback delay; the others fail with
+ * {@link #getErrorCode()} so CloudFormation retries them.
+ */
+@Getter
+abstract class TransientException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HandlerErrorCode errorCode;
+
+    TransientException(final String message, final HandlerErrorCode errorCode, final Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+}
@@ -1,9 +1,13 @@
 package software.amazon.eventschemas.registrypolicy;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.awssdk.services.schemas.model.ConflictException;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.SchemasException;
@@ -14,20 +18,28 @@ import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
-import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
-import software.amazon.awssdk.services.schemas.SchemasClient;
 import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.eventschemas.registrypolicy.CallbackContext.Phase;
 
+import static software.amazon.eventschemas.registrypolicy.SchemasCaller.join;
 import static software.amazon.eventschemas.registrypolicy.ResourceModel.TYPE_NAME;
 
 public class UpdateHandler extends BaseHandler<CallbackContext> {
 
-    private static final int CALLBACK_DELAY_SECONDS = 30;
-    private static final int NUMBER_OF_CREATE_POLL_RETRIES = 3;
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PROPAGATION_OPERATION = "PutResourcePolicy";
+
+    private final Stabilizer stabilizer;
+    private final Deadline.Factory deadlines;
 
-    private final SchemasClient schemasClient = ClientBuilder.getSchemasClient();
+    public UpdateHandler() {
+        this(Stabilizer.builder().build(), Deadline::of);
+    }
+
+    UpdateHandler(final Stabilizer stabilizer, final Deadline.Factory deadlines) {
+        this.stabilizer = stabilizer;
+        this.deadlines = deadlines;
+    }
 
     @Override
     public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -36,54 +48,92 @@ public class UpdateHandler extends BaseHandler<CallbackContext> {
             final CallbackContext callbackContext,
             final Logger logger) {
 
-        final CallbackContext context = callbackContext == null ? CallbackContext.builder()
-                .registryPolicyUpdated(false)
-                .registryPolicyStabilized(false)
-                .stabilizationRetriesRemaining(NUMBER_OF_CREATE_POLL_RETRIES)
-                .build() : callbackContext;
+        // a context without a phase never got past the first one
+        final CallbackContext context = callbackContext == null || callbackContext.getPhase() == null
+                ? CallbackContext.start(Phase.WRITE, stabilizer.now()) : callbackContext;
+
+        final Metrics metrics = new Metrics("Update");
+        final SchemasCaller caller = new SchemasCaller(metrics, deadlines.of(proxy));
+        final PhaseRunner phases = new PhaseRunner(stabilizer, metrics, caller, logger);
+        return phases.run(request.getDesiredResourceState(), context,
+                () -> handleRequest(proxy, request, context, logger, caller, phases));
+    }
+
+    private ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+            final AmazonWebServicesClientProxy proxy,
+            final ResourceHandlerRequest<ResourceModel> request,
+            final CallbackContext context,
+            final Logger logger,
+            final SchemasCaller caller,
+            final PhaseRunner phases) {
 
         final ResourceModel resourceModel = request.getDesiredResourceState();
         final String registryName = resourceModel.getRegistryName();
+        context.attempt();
 
         if (resourceModel.getId() == null) {
             resourceModel.setId(registryName);
         }
 
-        if (!context.isRegistryPolicyUpdated()) {
-            String revisionId = getCurrentRevisionId(registryName, proxy);
-            PutResourcePolicyResponse putResourcePolicyResponse = updatePolicy(registryName, revisionId, resourceModel.getPolicy(), proxy);
+        if (context.getPhase() == Phase.WRITE) {
+            PolicyValidator.validate(resourceModel.getPolicy());
+
+            // with no revision to update from, the current policy is read while the desired one is
+            // digested and serialized, in ASYNC mode
+            final ResourceModel previousModel = request.getPreviousResourceState();
+            CompletableFuture<GetResourcePolicyResponse> currentPolicyRead = previousModel == null || previousModel.getRevisionId() == null
+                    ? getCurrentPolicy(registryName, proxy, caller) : null;
+            resourceModel.setPolicyDigest(policyDigest(resourceModel.getPolicy()));
+            final String policy = serializePolicy(resourceModel.getPolicy());
+
+            // optimistic update at the revision CloudFormation last saw, which saves reading it first
+            PutResourcePolicyResponse putResourcePolicyResponse = null;
+            final String previousRevisionId = previousRevisionId(previousModel, resourceModel.getPolicyDigest());
+            if (previousRevisionId != null) {
+                putResourcePolicyResponse = tryUpdatePolicy(registryName, previousRevisionId, policy, proxy, caller);
+                if (putResourcePolicyResponse == null) {
+                    logger.log(String.format("%s [%s] revision %s is stale, refreshing",
+                            ResourceModel.TYPE_NAME, registryName, previousRevisionId));
+                }
+            }
 
-            context.setRegistryPolicyUpdated(true);
-            resourceModel.setRevisionId(putResourcePolicyResponse.revisionId());
+            if (putResourcePolicyResponse == null) {
+                if (currentPolicyRead == null) {
+                    currentPolicyRead = getCurrentPolicy(registryName, proxy, caller);
+                }
+                GetResourcePolicyResponse currentPolicy = checkCurrentPolicy(registryName, currentPolicyRead);
 
-            logger.log(String.format("%s [%s] updated successfully",
-                    ResourceModel.TYPE_NAME, registryName));
-        }
+                if (isPolicyUnchanged(currentPolicy.policy(), resourceModel.getPolicyDigest())) {
+                    resourceModel.setRevisionId(currentPolicy.revisionId());
+                    logger.log(String.format("%s [%s] policy is unchanged, skipping update",
+                            ResourceModel.TYPE_NAME, registryName));
+                    return ProgressEvent.defaultSuccessHandler(resourceModel);
+                }
 
-        if (!context.isRegistryPolicyStabilized()) {
-            boolean stabilized = isRegistryPolicyStabilized(registryName, resourceModel.getRevisionId(), proxy);
-            if (!stabilized) {
-                context.decrementStabilizationRetriesRemaining();
+                putResourcePolicyResponse = updatePolicy(registryName, currentPolicy.revisionId(), policy, proxy, caller);
             }
-            context.setRegistryPolicyStabilized(stabilized);
+
+            context.setRevisionId(putResourcePolicyResponse.revisionId());
+            context.advance(Phase.STABILIZE, phases.now());
+
+            logger.log(String.format("%s [%s] updated successfully",
+                    ResourceModel.TYPE_NAME, registryName));
         }
 
-        if (!context.isRegistryPolicyStabilized()) {
-            return ProgressEvent.<ResourceModel, CallbackContext>builder()
-                    .callbackContext(context)
-                    .status(OperationStatus.IN_PROGRESS)
-                    .callbackDelaySeconds(CALLBACK_DELAY_SECONDS)
-                    .resourceModel(resourceModel)
-                    .build();
+        resourceModel.setRevisionId(context.getRevisionId());
+        if (resourceModel.getPolicyDigest() == null) {
+            resourceModel.setPolicyDigest(policyDigest(resourceModel.getPolicy()));
         }
 
-        return ProgressEvent.defaultSuccessHandler(resourceModel);
+        return phases.stabilize(resourceModel, registryName, context, PROPAGATION_OPERATION,
+                () -> isRegistryPolicyStabilized(registryName, context.getRevisionId(), proxy, caller));
     }
 
-    private boolean isRegistryPolicyStabilized(String registryName, String revisionId, AmazonWebServicesClientProxy proxy) {
+    private boolean isRegistryPolicyStabilized(String registryName, String revisionId, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
         try {
             GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
-            String revisionReturned = proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, schemasClient::getResourcePolicy).revisionId();
+            String revisionReturned = join(caller.call(proxy, getResourcePolicyRequest,
+                    SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy)).revisionId();
             return revisionReturned.equals(revisionId);
         } catch (NotFoundException e) {
             return false;
@@ -92,30 +142,93 @@ public class UpdateHandler extends BaseHandler<CallbackContext> {
         }
     }
 
-    private String getCurrentRevisionId(String registryName, AmazonWebServicesClientProxy proxy) {
+    private boolean isPolicyUnchanged(String currentPolicy, String desiredPolicyDigest) {
+        if (currentPolicy == null || desiredPolicyDigest == null) {
+            return false;
+        }
         try {
-            GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
-            return proxy.injectCredentialsAndInvokeV2(getResourcePolicyRequest, schemasClient::getResourcePolicy).revisionId();
+            return desiredPolicyDigest.equals(PolicyCanonicalizer.digest(PolicyCodec.parse(currentPolicy)));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Revision id of the previous resource state, if there is one to update from optimistically.
+     * When the previous policy already matches the desired one, the current policy is read instead,
+     * so that an unchanged policy is not written again.
+     */
+    private String previousRevisionId(ResourceModel previousModel, String desiredPolicyDigest) {
+        if (previousModel == null || previousModel.getRevisionId() == null) {
+            return null;
+        }
+        try {
+            if (desiredPolicyDigest != null && desiredPolicyDigest.equals(PolicyCanonicalizer.digest(previousModel.getPolicy()))) {
+                return null;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return previousModel.getRevisionId();
+    }
+
+    private String serializePolicy(Object policyObject) {
+        try {
+            return PolicyCodec.write(policyObject);
+        } catch (IOException e) {
+            throw new CfnInvalidRequestException(e);
+        }
+    }
+
+    private String policyDigest(Object policyObject) {
+        try {
+            return PolicyCanonicalizer.digest(policyObject);
+        } catch (IOException e) {
+            throw new CfnInvalidRequestException(e);
+        }
+    }
+
+    private CompletableFuture<GetResourcePolicyResponse> getCurrentPolicy(String registryName, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        GetResourcePolicyRequest getResourcePolicyRequest = GetResourcePolicyRequest.builder().registryName(registryName).build();
+        return caller.call(proxy, getResourcePolicyRequest, SchemasClient::getResourcePolicy, SchemasAsyncClient::getResourcePolicy);
+    }
+
+    private GetResourcePolicyResponse checkCurrentPolicy(String registryName, CompletableFuture<GetResourcePolicyResponse> currentPolicy) {
+        try {
+            return join(currentPolicy);
         } catch (NotFoundException e) {
             // Either Registry or Policy does not exist
+            ClientBuilder.getRegistryCache().invalidate(registryName);
             throw new CfnNotFoundException(TYPE_NAME, registryName, e);
         } catch (SchemasException e) {
             throw new CfnGeneralServiceException("UpdateRegistryPolicy", e);
         }
     }
 
-    private PutResourcePolicyResponse updatePolicy(String registryName, String revisionId, Object policyObject, AmazonWebServicesClientProxy proxy) {
+    private PutResourcePolicyResponse updatePolicy(String registryName, String revisionId, String policy, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
         try {
-            String policy = MAPPER.writeValueAsString(policyObject);
             PutResourcePolicyRequest putResourcePolicyRequest = PutResourcePolicyRequest.builder().registryName(registryName).policy(policy).revisionId(revisionId).build();
-            return proxy.injectCredentialsAndInvokeV2(putResourcePolicyRequest, schemasClient::putResourcePolicy);
+            return join(caller.call(proxy, putResourcePolicyRequest, SchemasClient::putResourcePolicy, SchemasAsyncClient::putResourcePolicy));
         } catch (ConflictException e) {
             throw new CfnResourceConflictException(TYPE_NAME, registryName, e.getMessage());
-        } catch (JsonProcessingException e) {
-            throw new CfnInvalidRequestException(e);
+        } catch (NotFoundException e) {
+            ClientBuilder.getRegistryCache().invalidate(registryName);
+            throw new CfnNotFoundException(TYPE_NAME, registryName, e);
         } catch (SchemasException e) {
             throw new CfnGeneralServiceException("UpdateRegistryPolicy", e);
         }
     }
 
+    /**
+     * Same as {@link #updatePolicy}, but returns {@code null} instead of failing when the policy is
+     * no longer at {@code revisionId}.
+     */
+    private PutResourcePolicyResponse tryUpdatePolicy(String registryName, String revisionId, String policy, AmazonWebServicesClientProxy proxy, SchemasCaller caller) {
+        try {
+            return updatePolicy(registryName, revisionId, policy, proxy, caller);
+        } catch (CfnResourceConflictException e) {
+            return null;
+        }
+    }
+
 }
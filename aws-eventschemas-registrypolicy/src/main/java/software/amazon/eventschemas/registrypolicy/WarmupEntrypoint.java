@@ -0,0 +1,33 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import software.amazon.cloudformation.resource.Serializer;
+
+/**
+ * Lambda entrypoint, next to HandlerWrapper::testEntrypoint, that only runs the {@link Primer}.
+ * The input is ignored; the output reports how long priming took and which steps failed, e.g.
+ * {@code {"primedMillis":850,"failedSteps":[]}}. A container primed once answers immediately.
+ */
+public class WarmupEntrypoint implements RequestStreamHandler {
+
+    @Override
+    public void handleRequest(final InputStream input, final OutputStream output, final Context context) throws IOException {
+        final long start = System.currentTimeMillis();
+        final List<String> failedSteps = Primer.prime();
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("primedMillis", System.currentTimeMillis() - start);
+        result.put("failedSteps", failedSteps);
+        output.write(new Serializer().serialize(result).getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+}
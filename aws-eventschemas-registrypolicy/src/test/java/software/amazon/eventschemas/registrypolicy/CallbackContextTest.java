@@ -0,0 +1,113 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+import software.amazon.cloudformation.resource.Serializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CallbackContextTest {
+
+    private static final TypeReference<CallbackContext> CALLBACK_CONTEXT_TYPE = new TypeReference<CallbackContext>() { };
+
+    private final Serializer serializer = new Serializer();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        //GIVEN
+        final CallbackContext context = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("3")
+                .phaseStartedAt(1589000000000L)
+                .attempts(2)
+                .build();
+
+        //WHEN
+        final String json = serializer.serialize(context);
+
+        //THEN
+        assertThat(json).isEqualTo("{\"p\":\"STABILIZE\",\"r\":\"3\",\"t\":1589000000000,\"a\":2}");
+        assertThat(serializer.deserialize(json, CALLBACK_CONTEXT_TYPE)).isEqualTo(context);
+    }
+
+    @Test
+    public void testUnsetFieldsAreLeftOut() throws IOException {
+        //GIVEN
+        final CallbackContext context = CallbackContext.builder()
+                .phase(CallbackContext.Phase.WRITE)
+                .build();
+
+        //WHEN
+        final String json = serializer.serialize(context);
+
+        //THEN
+        assertThat(json).isEqualTo("{\"p\":\"WRITE\"}");
+        assertThat(serializer.deserialize(json, CALLBACK_CONTEXT_TYPE)).isEqualTo(context);
+    }
+
+    @Test
+    public void testRoundTripOfEveryField() throws IOException {
+        //GIVEN
+        final CallbackContext context =
+                new CallbackContext(CallbackContext.Phase.STABILIZE, "3f1c2a8e-\"quoted\"", 1589000000000L, 3, 12, new int[]{0, 7, 2});
+
+        //WHEN
+        final String json = serializer.serialize(context);
+
+        //THEN
+        assertThat(json).isEqualTo("{\"p\":\"STABILIZE\",\"r\":\"3f1c2a8e-\\\"quoted\\\"\",\"t\":1589000000000,\"a\":3,\"n\":12,\"h\":[0,7,2]}");
+        assertThat(serializer.deserialize(json, CALLBACK_CONTEXT_TYPE)).isEqualTo(context);
+    }
+
+    @Test
+    public void testEmptyContext() throws IOException {
+        //WHEN
+        final String json = serializer.serialize(new CallbackContext());
+
+        //THEN
+        assertThat(json).isEqualTo("{}");
+        assertThat(serializer.deserialize(json, CALLBACK_CONTEXT_TYPE)).isEqualTo(new CallbackContext());
+    }
+
+    @Test
+    public void testIgnoresUnknownAndNullFields() throws IOException {
+        //WHEN
+        final CallbackContext context = serializer.deserialize(
+                "{\"p\":\"DONE\",\"x\":{\"y\":[1,{\"z\":2}]},\"r\":null,\"t\":\"5\",\"n\":4,\"h\":[1,0,3]}", CALLBACK_CONTEXT_TYPE);
+
+        //THEN
+        assertThat(context).isEqualTo(CallbackContext.builder()
+                .phase(CallbackContext.Phase.DONE)
+                .phaseStartedAt(5L)
+                .polls(4)
+                .propagation(new int[]{1, 0, 3})
+                .build());
+    }
+
+    @Test
+    public void testRejectsUnknownPhase() {
+        assertThrows(InvalidFormatException.class, () ->
+                serializer.deserialize("{\"p\":\"ROLLBACK\"}", CALLBACK_CONTEXT_TYPE));
+    }
+
+    @Test
+    public void testAdvanceRestartsThePhase() {
+        //GIVEN
+        final CallbackContext context = CallbackContext.builder()
+                .phase(CallbackContext.Phase.WRITE)
+                .phaseStartedAt(1L)
+                .build();
+
+        //WHEN
+        context.advance(CallbackContext.Phase.STABILIZE, 5_000L);
+
+        //THEN
+        assertThat(context.getPhase()).isEqualTo(CallbackContext.Phase.STABILIZE);
+        assertThat(context.getPhaseStartedAt()).isEqualTo(5_000L);
+        assertThat(context.phaseDeadline(60_000L)).isEqualTo(65_000L);
+    }
+}
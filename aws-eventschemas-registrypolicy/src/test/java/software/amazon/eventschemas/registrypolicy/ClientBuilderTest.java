@@ -0,0 +1,97 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedClientOption;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClientBuilderTest {
+
+    @Test
+    public void testSharedClient() {
+        assertThat(ClientBuilder.getSchemasClient()).isSameAs(ClientBuilder.getSchemasClient());
+    }
+
+    @Test
+    public void testDefaultOverrideConfiguration() {
+        //WHEN
+        final ClientOverrideConfiguration configuration = ClientBuilder.overrideConfiguration(key -> null);
+
+        //THEN
+        assertThat(configuration.apiCallTimeout()).isEmpty();
+        assertThat(configuration.apiCallAttemptTimeout()).isEmpty();
+        assertThat(configuration.retryPolicy().map(policy -> policy.numRetries())).contains(0);
+        assertThat(configuration.advancedOption(SdkAdvancedClientOption.USER_AGENT_SUFFIX)).isEmpty();
+    }
+
+    @Test
+    public void testOverrideConfigurationFromEnvironment() {
+        //GIVEN
+        final Map<String, String> environment = new HashMap<>();
+        environment.put(ClientBuilder.API_CALL_TIMEOUT_ENV, "10000");
+        environment.put(ClientBuilder.API_CALL_ATTEMPT_TIMEOUT_ENV, "2000");
+        environment.put(ClientBuilder.USER_AGENT_SUFFIX_ENV, "registry-policy");
+
+        //WHEN
+        final ClientOverrideConfiguration configuration = ClientBuilder.overrideConfiguration(environment::get);
+
+        //THEN
+        assertThat(configuration.apiCallTimeout()).contains(Duration.ofSeconds(10));
+        assertThat(configuration.apiCallAttemptTimeout()).contains(Duration.ofSeconds(2));
+        assertThat(configuration.retryPolicy().map(policy -> policy.numRetries())).contains(0);
+        assertThat(configuration.advancedOption(SdkAdvancedClientOption.USER_AGENT_SUFFIX)).contains("registry-policy");
+    }
+
+    @Test
+    public void testRateLimitsFromEnvironment() {
+        //WHEN
+        final RateLimiter rateLimiter = ClientBuilder.buildRateLimiter(
+                key -> ClientBuilder.RATE_LIMITS_ENV.equals(key) ? "PutResourcePolicy=1, *=0" : null);
+
+        //THEN
+        assertThat(rateLimiter.acquire("PutResourcePolicy", 0)).isEqualTo(0);
+        assertThat(rateLimiter.acquire("PutResourcePolicy", 0)).isEqualTo(-1);
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.acquire("GetResourcePolicy", 0)).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testInvalidRateLimits() {
+        assertThrows(IllegalArgumentException.class, () ->
+                ClientBuilder.buildRateLimiter(key -> ClientBuilder.RATE_LIMITS_ENV.equals(key) ? "PutResourcePolicy" : null));
+    }
+
+    @Test
+    public void testRegistryCacheFromEnvironment() {
+        assertThat(ClientBuilder.buildRegistryCache(key -> null).isEnabled()).isTrue();
+        assertThat(ClientBuilder.buildRegistryCache(
+                key -> ClientBuilder.REGISTRY_CACHE_TTL_ENV.equals(key) ? "0" : null).isEnabled()).isFalse();
+        assertThat(ClientBuilder.buildRegistryCache(
+                key -> ClientBuilder.REGISTRY_CACHE_SIZE_ENV.equals(key) ? "0" : null).isEnabled()).isFalse();
+    }
+
+    @Test
+    public void testExecutionModeFromEnvironment() {
+        assertThat(ClientBuilder.buildExecutionMode(key -> null)).isEqualTo(ExecutionMode.SYNC);
+        assertThat(ClientBuilder.buildExecutionMode(
+                key -> ClientBuilder.EXECUTION_MODE_ENV.equals(key) ? "async" : null)).isEqualTo(ExecutionMode.ASYNC);
+        assertThrows(IllegalArgumentException.class, () ->
+                ClientBuilder.buildExecutionMode(key -> ClientBuilder.EXECUTION_MODE_ENV.equals(key) ? "sometimes" : null));
+    }
+
+    @Test
+    public void testPropagationEstimatorFromEnvironment() {
+        assertThat(ClientBuilder.buildPropagationEstimator(key -> null).isEnabled()).isTrue();
+        assertThat(ClientBuilder.buildPropagationEstimator(
+                key -> ClientBuilder.CALLBACK_DELAY_PERCENTILE_ENV.equals(key) ? "0" : null).isEnabled()).isFalse();
+        assertThrows(IllegalArgumentException.class, () ->
+                ClientBuilder.buildPropagationEstimator(key -> ClientBuilder.CALLBACK_DELAY_PERCENTILE_ENV.equals(key) ? "150" : null));
+    }
+}
@@ -1,5 +1,11 @@
 package software.amazon.eventschemas.registrypolicy;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.services.schemas.model.DescribeRegistryRequest;
 import software.amazon.awssdk.services.schemas.model.DescribeRegistryResponse;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
@@ -9,10 +15,12 @@ import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.SchemasException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,11 +36,19 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 
 @ExtendWith(MockitoExtension.class)
 public class CreateHandlerTest {
 
+    // stands in for the remaining time of the mocked proxy
+    private static final Deadline.Factory DEADLINES =
+            proxy -> new Deadline(60_000L, ClientOverrideConfiguration.builder().build(), System::currentTimeMillis);
+
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
@@ -45,10 +61,15 @@ public class CreateHandlerTest {
         logger = mock(Logger.class);
     }
 
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
     @Test
     public void testSuccessState() {
         //GIVEN
-        final CreateHandler handler = new CreateHandler();
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -70,7 +91,9 @@ public class CreateHandlerTest {
         doReturn(DescribeRegistryResponse.builder().build())
                 .when(proxy)
                 .injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
-        doThrow(NotFoundException.builder().build()).doReturn(getResourcePolicyResponse)
+        // no policy before the put, then the revision put
+        doThrow(NotFoundException.builder().build())
+                .doReturn(getResourcePolicyResponse)
                 .when(proxy)
                 .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
         doReturn(putResourcePolicyResponse)
@@ -94,7 +117,7 @@ public class CreateHandlerTest {
     @Test
     public void testInProgressState() {
         //GIVEN
-        final CreateHandler handler = new CreateHandler();
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().budgetMillis(0).build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -105,9 +128,10 @@ public class CreateHandlerTest {
                 .revisionId("2")
                 .build();
         final CallbackContext outputContext = CallbackContext.builder()
-                .registryPolicyCreated(true)
-                .registryPolicyStabilized(false)
-                .stabilizationRetriesRemaining(2)
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("2")
+                .attempts(1)
+                .polls(1)
                 .build();
 
         // Mock
@@ -127,7 +151,8 @@ public class CreateHandlerTest {
         //THEN
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        assertThat(response.getCallbackContext()).isEqualTo(outputContext);
+        assertThat(response.getCallbackContext()).isEqualToIgnoringGivenFields(outputContext, "phaseStartedAt");
+        assertThat(response.getCallbackContext().getPhaseStartedAt()).isGreaterThan(0L);
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(30);
         assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(response.getResourceModels()).isNull();
@@ -136,10 +161,77 @@ public class CreateHandlerTest {
     }
 
 
+    @Test
+    public void testStabilizationStopsShortOfTheDeadline() {
+        //GIVEN
+        final long start = System.currentTimeMillis();
+        final AtomicLong now = new AtomicLong(start);
+        // 3 seconds left for steps, well within the stabilizer's own budget
+        final CreateHandler handler = new CreateHandler(
+                Stabilizer.builder().clock(now::get).sleeper(now::addAndGet).build(),
+                proxy -> new Deadline(Deadline.RESERVE_MILLIS + Deadline.MIN_STEP_MILLIS + 3_000L,
+                        ClientOverrideConfiguration.builder().build(), now::get));
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().registryName("test-registry").build())
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("2")
+                .phaseStartedAt(start)
+                .build();
+
+        // Mock
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getPolls()).isGreaterThan(1);
+        assertThat(now.get() - start).isBetween(1L, 3_000L);
+    }
+
+    @Test
+    public void testInProgressStateWaitsForLearnedPropagation() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().budgetMillis(0).build(), DEADLINES);
+        ClientBuilder.setPropagationEstimator(new PropagationEstimator(90, System::currentTimeMillis));
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        // what another container learned: puts became visible within 20 seconds
+        final int[] propagation = {0, 0, 0, 0, 0, 0, 0, 0, 4};
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("2")
+                .phaseStartedAt(System.currentTimeMillis())
+                .propagation(propagation)
+                .build();
+
+        // Mock
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(20);
+        assertThat(response.getCallbackContext().getPropagation()).containsExactly(propagation);
+    }
+
     @Test
     public void testRegistryNotFoundException() {
         //GIVEN
-        final CreateHandler handler = new CreateHandler();
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -151,6 +243,9 @@ public class CreateHandlerTest {
         doThrow(NotFoundException.builder().build())
                 .when(proxy)
                 .injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
 
         //WHEN
         assertThrows(CfnNotFoundException.class, () ->
@@ -160,7 +255,7 @@ public class CreateHandlerTest {
     @Test
     public void testCfnAlreadyExistsException() {
         //GIVEN
-        final CreateHandler handler = new CreateHandler();
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -182,10 +277,78 @@ public class CreateHandlerTest {
                 handler.handleRequest(proxy, request, null, logger));
     }
 
+    @Test
+    public void testExistingDesiredPolicyIsNotPutAgain() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(policy())
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        // put by an attempt whose response was lost, formatted differently
+        GetResourcePolicyResponse existingPolicy = GetResourcePolicyResponse.builder()
+                .policy("{\"Statement\": {\"Action\": \"schemas:*\", \"Principal\": \"*\", \"Effect\": \"Allow\"}, \"Version\": \"2012-10-17\"}")
+                .revisionId("1")
+                .build();
+
+        // Mock
+        doReturn(DescribeRegistryResponse.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        doReturn(existingPolicy)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getRevisionId()).isEqualTo("1");
+        assertThat(response.getResourceModel().getPolicyDigest()).isNotNull();
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+    }
+
+    @Test
+    public void testExistingOtherPolicyAlreadyExists() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(policy())
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        GetResourcePolicyResponse existingPolicy = GetResourcePolicyResponse.builder()
+                .policy("{\"Statement\": {\"Action\": \"schemas:Describe*\", \"Principal\": \"*\", \"Effect\": \"Allow\"}, \"Version\": \"2012-10-17\"}")
+                .revisionId("1")
+                .build();
+
+        // Mock
+        doReturn(DescribeRegistryResponse.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        doReturn(existingPolicy)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        assertThrows(CfnAlreadyExistsException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+
+        //THEN
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+    }
+
     @Test
     public void testSchemasException() {
         //GIVEN
-        final CreateHandler handler = new CreateHandler();
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -209,4 +372,207 @@ public class CreateHandlerTest {
                 handler.handleRequest(proxy, request, null, logger));
     }
 
+    @Test
+    public void testStabilizationTimeoutFails() {
+        //GIVEN
+        // ten minutes into a phase that times out after five
+        final Stabilizer stabilizer = Stabilizer.builder().clock(() -> 10 * 60 * 1000L).build();
+        final CreateHandler handler = new CreateHandler(stabilizer, DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .revisionId("2")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("2")
+                .phaseStartedAt(0L)
+                .build();
+
+        // Mock
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+    }
+
+    @Test
+    public void testRegistryCheckSchemasException() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        // Mock
+        doThrow(SchemasException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        assertThrows(CfnGeneralServiceException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+    }
+
+    @Test
+    public void testRegistryCacheSkipsDescribe() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        PutResourcePolicyResponse putResourcePolicyResponse = PutResourcePolicyResponse.builder()
+                .revisionId("1")
+                .build();
+        GetResourcePolicyResponse getResourcePolicyResponse = GetResourcePolicyResponse.builder()
+                .revisionId("1")
+                .build();
+
+        // Mock
+        doReturn(DescribeRegistryResponse.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        // no policy before each put, then the revision put
+        doThrow(NotFoundException.builder().build())
+                .doReturn(getResourcePolicyResponse)
+                .doThrow(NotFoundException.builder().build())
+                .doReturn(getResourcePolicyResponse)
+                .doThrow(NotFoundException.builder().build())
+                .doReturn(getResourcePolicyResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+        doReturn(putResourcePolicyResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+
+        //WHEN
+        for (int i = 0; i < 3; i++) {
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                    .desiredResourceState(ResourceModel.builder().registryName("test-registry").build())
+                    .build();
+            assertThat(handler.handleRequest(proxy, request, null, logger).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        }
+
+        //THEN
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        assertThat(ClientBuilder.getRegistryCache().contains("test-registry")).isTrue();
+    }
+
+    @Test
+    public void testPutNotFoundInvalidatesRegistryCache() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().registryName("test-registry").build())
+                .build();
+        ClientBuilder.getRegistryCache().put("test-registry");
+
+        // Mock
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+
+        //THEN
+        assertThrows(CfnNotFoundException.class, () -> handler.handleRequest(proxy, request, null, logger));
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DescribeRegistryRequest.class), any());
+        assertThat(ClientBuilder.getRegistryCache().contains("test-registry")).isFalse();
+    }
+
+    @Test
+    public void testInvalidPolicyFailsBeforeAnyCall() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(Collections.singletonMap("Version", "2012-10-17"))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        //WHEN
+        assertThrows(CfnInvalidRequestException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+
+        //THEN
+        verifyZeroInteractions(proxy);
+    }
+
+    @Test
+    public void testContextWithoutPhaseStartsWithPreflight() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(Collections.singletonMap("Version", "2012-10-17"))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .attempts(1)
+                .build();
+
+        //WHEN
+        assertThrows(CfnInvalidRequestException.class, () ->
+                handler.handleRequest(proxy, request, inputContext, logger));
+
+        //THEN
+        verifyZeroInteractions(proxy);
+    }
+
+    @Test
+    public void testRateLimitedYields() {
+        //GIVEN
+        final CreateHandler handler = new CreateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        // one call every 1000 seconds, and that call is already taken
+        final RateLimiter rateLimiter = new RateLimiter(
+                Collections.singletonMap(RateLimiter.ANY_OPERATION, 0.001), System::nanoTime, Thread::sleep);
+        rateLimiter.acquire("DescribeRegistry", 0);
+        ClientBuilder.setRateLimiter(rateLimiter);
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(5);
+        assertThat(response.getCallbackContext().getPhase()).isEqualTo(CallbackContext.Phase.PREFLIGHT);
+        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
+        assertThat(response.getErrorCode()).isNull();
+    }
+
+    private static Map<String, Object> policy() {
+        final Map<String, Object> statement = new HashMap<>();
+        statement.put("Effect", "Allow");
+        statement.put("Principal", "*");
+        statement.put("Action", "schemas:*");
+        final Map<String, Object> policy = new HashMap<>();
+        policy.put("Version", "2012-10-17");
+        policy.put("Statement", statement);
+        return policy;
+    }
 }
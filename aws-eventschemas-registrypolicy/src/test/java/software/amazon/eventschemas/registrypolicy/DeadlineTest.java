@@ -0,0 +1,96 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DeadlineTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+
+    @Test
+    public void testKeepsTimeToReturn() {
+        //GIVEN
+        final Deadline deadline = new Deadline(10_000L, ClientOverrideConfiguration.builder().build(), now::get);
+
+        //WHEN
+        now.addAndGet(4_000L);
+
+        //THEN
+        assertThat(deadline.remainingMillis()).isEqualTo(10_000L - 4_000L - Deadline.RESERVE_MILLIS);
+        assertThat(deadline.lastStepStartMillis()).isEqualTo(1_000L + 10_000L - Deadline.RESERVE_MILLIS - Deadline.MIN_STEP_MILLIS);
+    }
+
+    @Test
+    public void testStepNeedsTimeToFinish() {
+        //GIVEN
+        final Deadline deadline = new Deadline(10_000L, ClientOverrideConfiguration.builder().build(), now::get);
+
+        //WHEN
+        now.set(deadline.lastStepStartMillis());
+        deadline.check("GetResourcePolicy");
+        now.incrementAndGet();
+
+        //THEN
+        assertThrows(DeadlineExceededException.class, () -> deadline.check("GetResourcePolicy"));
+    }
+
+    @Test
+    public void testRequestsGetTheTimeLeft() {
+        //GIVEN
+        final Deadline deadline = new Deadline(10_000L, ClientOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofSeconds(30))
+                .apiCallAttemptTimeout(Duration.ofSeconds(2))
+                .build(), now::get);
+        final AwsCredentialsProvider credentials = AnonymousCredentialsProvider.create();
+        final GetResourcePolicyRequest request = GetResourcePolicyRequest.builder()
+                .registryName("test-registry")
+                .overrideConfiguration(AwsRequestOverrideConfiguration.builder().credentialsProvider(credentials).build())
+                .build();
+
+        //WHEN
+        final AwsRequestOverrideConfiguration configuration = deadline.apply(request).overrideConfiguration().get();
+
+        //THEN
+        assertThat(configuration.apiCallTimeout()).contains(Duration.ofMillis(10_000L - Deadline.RESERVE_MILLIS));
+        assertThat(configuration.apiCallAttemptTimeout()).contains(Duration.ofSeconds(2));
+        assertThat(configuration.credentialsProvider()).contains(credentials);
+    }
+
+    @Test
+    public void testRemainingTimeOfTheProxy() {
+        //GIVEN
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 10_000L);
+
+        //WHEN
+        final Deadline deadline = Deadline.of(proxy);
+
+        //THEN
+        assertThat(deadline.remainingMillis()).isBetween(0L, 10_000L - Deadline.RESERVE_MILLIS);
+    }
+
+    @Test
+    public void testNoDeadline() {
+        //WHEN
+        final Deadline deadline = Deadline.none();
+        final GetResourcePolicyRequest request = GetResourcePolicyRequest.builder().registryName("test-registry").build();
+
+        //THEN
+        deadline.check("GetResourcePolicy");
+        assertThat(deadline.remainingMillis()).isEqualTo(Long.MAX_VALUE);
+        assertThat(deadline.apply(request)).isSameAs(request);
+    }
+}
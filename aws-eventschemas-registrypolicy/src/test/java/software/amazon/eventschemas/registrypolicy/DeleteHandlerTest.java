@@ -1,5 +1,6 @@
 package software.amazon.eventschemas.registrypolicy;
 
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
@@ -7,10 +8,12 @@ import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.NotFoundException;
 import software.amazon.awssdk.services.schemas.model.SchemasException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,13 +25,21 @@ import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class DeleteHandlerTest {
 
+    // stands in for the remaining time of the mocked proxy
+    private static final Deadline.Factory DEADLINES =
+            proxy -> new Deadline(60_000L, ClientOverrideConfiguration.builder().build(), System::currentTimeMillis);
+
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
@@ -41,10 +52,15 @@ public class DeleteHandlerTest {
         logger = mock(Logger.class);
     }
 
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
 
     @Test
     public void testSuccessState() {
-        final DeleteHandler handler = new DeleteHandler();
+        final DeleteHandler handler = new DeleteHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -73,10 +89,73 @@ public class DeleteHandlerTest {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void testPropagatesWithinOneInvocation() {
+        //GIVEN
+        final DeleteHandler handler = new DeleteHandler(Stabilizer.builder().sleeper(millis -> { }).build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        // Mock
+        doReturn(DeleteResourcePolicyResponse.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(DeleteResourcePolicyRequest.class), any());
+        doReturn(GetResourcePolicyResponse.builder().build(), GetResourcePolicyResponse.builder().build())
+                .doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, times(3)).injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+        verify(logger).log(contains("stabilized after 3 poll(s) in 1 invocation(s)"));
+    }
+
+    @Test
+    public void testReportsPollsAcrossInvocations() {
+        //GIVEN
+        final DeleteHandler handler = new DeleteHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .phaseStartedAt(System.currentTimeMillis())
+                .attempts(1)
+                .polls(12)
+                .build();
+
+        // Mock
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(DeleteResourcePolicyRequest.class), any());
+        verify(logger).log(contains("stabilized after 13 poll(s) in 2 invocation(s)"));
+        verify(logger).log(contains("\"PollsToStabilize\":13"));
+    }
+
     @Test
     public void testInProgressState() {
         //GIVEN
-        final DeleteHandler handler = new DeleteHandler();
+        final DeleteHandler handler = new DeleteHandler(Stabilizer.builder().budgetMillis(0).build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -85,9 +164,9 @@ public class DeleteHandlerTest {
                 .desiredResourceState(model)
                 .build();
         final CallbackContext outputContext = CallbackContext.builder()
-                .registryPolicyDeleted(true)
-                .registryPolicyStabilized(false)
-                .stabilizationRetriesRemaining(2)
+                .phase(CallbackContext.Phase.STABILIZE)
+                .attempts(1)
+                .polls(1)
                 .build();
 
         // Mock
@@ -104,7 +183,8 @@ public class DeleteHandlerTest {
         //THEN
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        assertThat(response.getCallbackContext()).isEqualTo(outputContext);
+        assertThat(response.getCallbackContext()).isEqualToIgnoringGivenFields(outputContext, "phaseStartedAt");
+        assertThat(response.getCallbackContext().getPhaseStartedAt()).isGreaterThan(0L);
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(30);
         assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(response.getResourceModels()).isNull();
@@ -115,7 +195,7 @@ public class DeleteHandlerTest {
     @Test
     public void testResourceNotFoundException() {
         //GIVEN
-        final DeleteHandler handler = new DeleteHandler();
+        final DeleteHandler handler = new DeleteHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -136,7 +216,7 @@ public class DeleteHandlerTest {
     @Test
     public void testSchemasException() {
         //GIVEN
-        final DeleteHandler handler = new DeleteHandler();
+        final DeleteHandler handler = new DeleteHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -154,4 +234,36 @@ public class DeleteHandlerTest {
                 handler.handleRequest(proxy, request, null, logger));
     }
 
+    @Test
+    public void testStabilizationTimeoutFails() {
+        //GIVEN
+        // ten minutes into a phase that times out after five
+        final Stabilizer stabilizer = Stabilizer.builder().clock(() -> 10 * 60 * 1000L).build();
+        final DeleteHandler handler = new DeleteHandler(stabilizer, DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .revisionId("2")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .phaseStartedAt(0L)
+                .build();
+
+        // Mock
+        doReturn(GetResourcePolicyResponse.builder().revisionId("1").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+    }
+
 }
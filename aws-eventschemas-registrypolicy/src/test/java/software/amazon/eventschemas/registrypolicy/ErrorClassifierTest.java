@@ -0,0 +1,41 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.NonRetryableException;
+import software.amazon.awssdk.services.schemas.model.BadRequestException;
+import software.amazon.awssdk.services.schemas.model.ConflictException;
+import software.amazon.awssdk.services.schemas.model.InternalServerErrorException;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.SchemasException;
+import software.amazon.awssdk.services.schemas.model.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static software.amazon.eventschemas.registrypolicy.ErrorClassifier.Category.RETRYABLE;
+import static software.amazon.eventschemas.registrypolicy.ErrorClassifier.Category.TERMINAL;
+import static software.amazon.eventschemas.registrypolicy.ErrorClassifier.Category.THROTTLING;
+
+public class ErrorClassifierTest {
+
+    @Test
+    public void testServiceErrorsAreRetryable() {
+        assertThat(ErrorClassifier.classify(InternalServerErrorException.builder().statusCode(500).build())).isEqualTo(RETRYABLE);
+        assertThat(ErrorClassifier.classify(SchemasException.builder().statusCode(503).build())).isEqualTo(RETRYABLE);
+        assertThat(ErrorClassifier.classify(ApiCallAttemptTimeoutException.builder().build())).isEqualTo(RETRYABLE);
+    }
+
+    @Test
+    public void testThrottling() {
+        assertThat(ErrorClassifier.classify(TooManyRequestsException.builder().statusCode(429).build())).isEqualTo(THROTTLING);
+    }
+
+    @Test
+    public void testClientErrorsAreTerminal() {
+        assertThat(ErrorClassifier.classify(NotFoundException.builder().statusCode(404).build())).isEqualTo(TERMINAL);
+        assertThat(ErrorClassifier.classify(ConflictException.builder().statusCode(409).build())).isEqualTo(TERMINAL);
+        assertThat(ErrorClassifier.classify(BadRequestException.builder().statusCode(400).build())).isEqualTo(TERMINAL);
+        assertThat(ErrorClassifier.classify(SchemasException.builder().build())).isEqualTo(TERMINAL);
+        assertThat(ErrorClassifier.classify(NonRetryableException.builder().build())).isEqualTo(TERMINAL);
+        assertThat(ErrorClassifier.classify(new IllegalStateException())).isEqualTo(TERMINAL);
+    }
+}
@@ -0,0 +1,167 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class ExecutionModeTest {
+
+    private static final String REGISTRY_NAME = "test-registry";
+
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
+    @Test
+    public void testModesReturnTheSameEvents() {
+        //WHEN
+        final List<Object> sync = outcomes(ExecutionMode.SYNC, SchemasSimulator.builder().build());
+        final SchemasClient blockingClient = mock(SchemasClient.class);
+        final SchemasSimulator asyncSimulator = SchemasSimulator.builder().build();
+        final List<Object> async = outcomes(ExecutionMode.ASYNC, asyncSimulator, blockingClient, asyncSimulator.asyncClient());
+
+        //THEN
+        assertThat(sync).hasSize(8);
+        assertThat(sync.get(0)).isInstanceOf(ProgressEvent.class);
+        assertThat(((ProgressEvent<?, ?>) sync.get(0)).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(sync.get(5)).asString().startsWith(CfnAlreadyExistsException.class.getName());
+        assertThat(async).isEqualTo(sync);
+        verifyZeroInteractions(blockingClient);
+    }
+
+    @Test
+    public void testSyncModeNeverUsesTheAsyncClient() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        final SchemasAsyncClient asyncClient = mock(SchemasAsyncClient.class);
+
+        //WHEN
+        final List<Object> sync = outcomes(ExecutionMode.SYNC, simulator, simulator, asyncClient);
+
+        //THEN
+        assertThat(((ProgressEvent<?, ?>) sync.get(0)).getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        verifyZeroInteractions(asyncClient);
+    }
+
+    @Test
+    public void testModesReturnTheSameEventsWhileStabilizing() {
+        //GIVEN
+        final AtomicLong now = new AtomicLong();
+
+        //WHEN
+        final List<Object> sync = outcomes(ExecutionMode.SYNC,
+                SchemasSimulator.builder().propagationDelayMillis(1_000).clock(now::get).build());
+        final List<Object> async = outcomes(ExecutionMode.ASYNC,
+                SchemasSimulator.builder().propagationDelayMillis(1_000).clock(now::get).build());
+
+        //THEN
+        assertThat(((ProgressEvent<?, ?>) sync.get(0)).getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(async).isEqualTo(sync);
+    }
+
+    private static List<Object> outcomes(ExecutionMode mode, SchemasSimulator simulator) {
+        return outcomes(mode, simulator, simulator, simulator.asyncClient());
+    }
+
+    /**
+     * Runs create, read, update (optimistic, unchanged and without a previous state), a create
+     * that finds another policy, list and delete, and returns what each of them returned or threw.
+     */
+    private static List<Object> outcomes(ExecutionMode mode, SchemasSimulator simulator,
+                                         SchemasClient blockingClient, SchemasAsyncClient asyncClient) {
+        simulator.createRegistry(REGISTRY_NAME);
+        ClientBuilder.setSchemasClient(blockingClient);
+        ClientBuilder.setSchemasAsyncClient(asyncClient);
+        ClientBuilder.setRegistryCache(null);
+        ClientBuilder.setExecutionMode(mode);
+
+        final Stabilizer stabilizer = Stabilizer.builder().budgetMillis(0).build();
+        final List<Object> outcomes = new ArrayList<>();
+
+        final ProgressEvent<ResourceModel, CallbackContext> created = run(outcomes, () ->
+                new CreateHandler(stabilizer, Deadline::of).handleRequest(proxy(), request(model(policy("schemas:*")), null), null, new LoggerProxy()));
+        run(outcomes, () ->
+                new ReadHandler().handleRequest(proxy(), request(model(null), null), null, new LoggerProxy()));
+        final ResourceModel previous = created.getResourceModel();
+        run(outcomes, () ->
+                new UpdateHandler(stabilizer, Deadline::of).handleRequest(proxy(), request(model(policy("schemas:Describe*")), previous), null, new LoggerProxy()));
+        run(outcomes, () ->
+                new UpdateHandler(stabilizer, Deadline::of).handleRequest(proxy(), request(model(policy("schemas:Describe*")), previous), null, new LoggerProxy()));
+        run(outcomes, () ->
+                new UpdateHandler(stabilizer, Deadline::of).handleRequest(proxy(), request(model(policy("schemas:List*")), null), null, new LoggerProxy()));
+        run(outcomes, () ->
+                new CreateHandler(stabilizer, Deadline::of).handleRequest(proxy(), request(model(policy("schemas:*")), null), null, new LoggerProxy()));
+        run(outcomes, () ->
+                new ListHandler().handleRequest(proxy(), request(model(null), null), null, new LoggerProxy()));
+        run(outcomes, () ->
+                new DeleteHandler(stabilizer, Deadline::of).handleRequest(proxy(), request(model(null), null), null, new LoggerProxy()));
+        return outcomes;
+    }
+
+    private static ProgressEvent<ResourceModel, CallbackContext> run(
+            List<Object> outcomes, Supplier<ProgressEvent<ResourceModel, CallbackContext>> handler) {
+        try {
+            final ProgressEvent<ResourceModel, CallbackContext> event = handler.get();
+            if (event.getCallbackContext() != null) {
+                // the only field that depends on when the test runs
+                event.getCallbackContext().setPhaseStartedAt(0L);
+            }
+            outcomes.add(event);
+            return event;
+        } catch (RuntimeException e) {
+            outcomes.add(e.getClass().getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static ResourceModel model(Map<String, Object> policy) {
+        return ResourceModel.builder()
+                .id(REGISTRY_NAME)
+                .registryName(REGISTRY_NAME)
+                .policy(policy)
+                .build();
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> request(ResourceModel model, ResourceModel previous) {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previous)
+                .build();
+    }
+
+    private static Map<String, Object> policy(String action) {
+        final Map<String, Object> statement = new HashMap<>();
+        statement.put("Effect", "Allow");
+        statement.put("Principal", "*");
+        statement.put("Action", action);
+        final Map<String, Object> policy = new HashMap<>();
+        policy.put("Version", "2012-10-17");
+        policy.put("Statement", statement);
+        return policy;
+    }
+
+    private static AmazonWebServicesClientProxy proxy() {
+        return new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 60_000L);
+    }
+}
@@ -0,0 +1,225 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.services.schemas.model.ForbiddenException;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesRequest;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesResponse;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.RegistrySummary;
+import software.amazon.awssdk.services.schemas.model.SchemasException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+public class ListHandlerTest {
+
+    // stands in for the remaining time of the mocked proxy
+    private static final Deadline.Factory DEADLINES =
+            proxy -> new Deadline(60_000L, ClientOverrideConfiguration.builder().build(), System::currentTimeMillis);
+
+    @Mock
+    private AmazonWebServicesClientProxy proxy;
+
+    @Mock
+    private Logger logger;
+
+    @BeforeEach
+    public void setup() {
+        proxy = mock(AmazonWebServicesClientProxy.class);
+        logger = mock(Logger.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
+    @Test
+    public void testSuccessState() {
+        //GIVEN
+        final ListHandler handler = new ListHandler(10, DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .nextToken("token")
+                .build();
+
+        ListRegistriesResponse listRegistriesResponse = ListRegistriesResponse.builder()
+                .registries(RegistrySummary.builder().registryName("with-policy").build(),
+                        RegistrySummary.builder().registryName("without-policy").build())
+                .nextToken("next-token")
+                .build();
+        GetResourcePolicyResponse getResourcePolicyResponse = GetResourcePolicyResponse.builder()
+                .policy("{\"Version\":\"2012-10-17\"}")
+                .revisionId("1")
+                .build();
+
+        // Mock
+        doReturn(listRegistriesResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(eq(ListRegistriesRequest.builder().scope("LOCAL").nextToken("token").build()), any());
+        doReturn(getResourcePolicyResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(eq(GetResourcePolicyRequest.builder().registryName("with-policy").build()), any());
+        doThrow(NotFoundException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(eq(GetResourcePolicyRequest.builder().registryName("without-policy").build()), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getCallbackContext()).isNull();
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
+        assertThat(response.getResourceModel()).isNull();
+        assertThat(response.getResourceModels()).hasSize(1);
+        assertThat(response.getResourceModels().get(0).getId()).isEqualTo("with-policy");
+        assertThat(response.getResourceModels().get(0).getRegistryName()).isEqualTo("with-policy");
+        assertThat(response.getResourceModels().get(0).getRevisionId()).isEqualTo("1");
+        assertThat(response.getResourceModels().get(0).getPolicy()).containsEntry("Version", "2012-10-17");
+        assertThat(response.getResourceModels().get(0).getPolicyDigest()).hasSize(64);
+        assertThat(response.getNextToken()).isEqualTo("next-token");
+        assertThat(response.getMessage()).isNull();
+        assertThat(response.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void testSchemasException() {
+        //GIVEN
+        final ListHandler handler = new ListHandler(10, DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .build();
+
+        // Mock
+        doThrow(SchemasException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(ListRegistriesRequest.class), any());
+
+        //WHEN
+        assertThrows(CfnGeneralServiceException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+    }
+
+    @Test
+    public void testSkipsRegistryWithoutAccess() {
+        //GIVEN
+        final ListHandler handler = new ListHandler(10, DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .build();
+
+        ListRegistriesResponse listRegistriesResponse = ListRegistriesResponse.builder()
+                .registries(RegistrySummary.builder().registryName("denied").build(),
+                        RegistrySummary.builder().registryName("with-policy").build())
+                .build();
+        GetResourcePolicyResponse getResourcePolicyResponse = GetResourcePolicyResponse.builder()
+                .policy("{\"Version\":\"2012-10-17\"}")
+                .revisionId("1")
+                .build();
+
+        // Mock
+        doReturn(listRegistriesResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(ListRegistriesRequest.class), any());
+        doThrow(ForbiddenException.builder().statusCode(403).message("Access denied").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(eq(GetResourcePolicyRequest.builder().registryName("denied").build()), any());
+        doReturn(getResourcePolicyResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(eq(GetResourcePolicyRequest.builder().registryName("with-policy").build()), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModels()).extracting(ResourceModel::getRegistryName).containsExactly("with-policy");
+    }
+
+    @Test
+    public void testMalformedPolicy() {
+        //GIVEN
+        final ListHandler handler = new ListHandler(10, DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .build();
+
+        ListRegistriesResponse listRegistriesResponse = ListRegistriesResponse.builder()
+                .registries(RegistrySummary.builder().registryName("test-registry").build())
+                .build();
+
+        // Mock
+        doReturn(listRegistriesResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(ListRegistriesRequest.class), any());
+        doReturn(GetResourcePolicyResponse.builder().policy("{").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        assertThrows(CfnGeneralServiceException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+    }
+
+    @Test
+    public void testPagesThroughAllRegistries() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().listPageSize(10).build();
+        for (int i = 0; i < 25; i++) {
+            final String registryName = String.format("registry-%02d", i);
+            simulator.createRegistry(registryName);
+            if (i % 2 == 0) {
+                simulator.putResourcePolicy(PutResourcePolicyRequest.builder().registryName(registryName).policy("{}").build());
+            }
+        }
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+
+        final ListHandler handler = new ListHandler(3, Deadline::of);
+        final AmazonWebServicesClientProxy localProxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 60_000L);
+
+        //WHEN
+        final List<String> listed = new ArrayList<>();
+        String nextToken = null;
+        int pages = 0;
+        do {
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                    .nextToken(nextToken)
+                    .build();
+            final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(localProxy, request, null, logger);
+            response.getResourceModels().forEach(model -> listed.add(model.getId()));
+            nextToken = response.getNextToken();
+            pages++;
+        } while (nextToken != null);
+
+        //THEN
+        assertThat(pages).isEqualTo(3);
+        assertThat(listed).hasSize(13).startsWith("registry-00", "registry-02").endsWith("registry-24");
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(25);
+    }
+}
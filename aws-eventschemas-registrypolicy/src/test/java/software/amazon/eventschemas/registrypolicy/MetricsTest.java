@@ -0,0 +1,115 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MetricsTest {
+
+    private static final String REGISTRY_NAME = "test-registry";
+
+    private static final RetryPolicy RETRY_POLICY = RetryPolicy.builder().sleeper(millis -> { }).build();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SchemasSimulator simulator;
+    private AmazonWebServicesClientProxy proxy;
+    private Metrics metrics;
+    private SchemasCaller caller;
+
+    @BeforeEach
+    public void setup() {
+        simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        proxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 60_000L);
+        metrics = new Metrics("Create", () -> 1_000L);
+        // every reading of the clock advances it by 2 ms
+        caller = new SchemasCaller(metrics, RateLimiter.unlimited(), RETRY_POLICY, () -> nanos.addAndGet(2_000_000L),
+                ExecutionMode.SYNC, Deadline.none());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEmbeddedMetricFormat() throws IOException {
+        //GIVEN
+        assertThrows(NotFoundException.class, () ->
+                caller.invoke(proxy, get(), simulator::getResourcePolicy));
+        caller.invoke(proxy, PutResourcePolicyRequest.builder().registryName(REGISTRY_NAME).policy("{\"é\":1}").build(),
+                simulator::putResourcePolicy);
+        caller.invokeAsync(proxy, get(), simulator.asyncClient()::getResourcePolicy).join();
+        metrics.stabilization(new StabilizationResult(false, 3, 600));
+        metrics.registryCache(true);
+        metrics.progress(ProgressEvent.<ResourceModel, CallbackContext>builder().status(OperationStatus.IN_PROGRESS).build());
+
+        //WHEN
+        final Map<String, Object> document = PolicyCodec.parse(metrics.toEmf());
+
+        //THEN
+        final Map<String, Object> aws = (Map<String, Object>) document.get("_aws");
+        assertThat(aws.get("Timestamp")).isEqualTo(1_000);
+        final Map<String, Object> directive = ((List<Map<String, Object>>) aws.get("CloudWatchMetrics")).get(0);
+        assertThat(directive.get("Namespace")).isEqualTo(Metrics.NAMESPACE);
+        assertThat(directive.get("Dimensions")).isEqualTo(Collections.singletonList(Collections.singletonList("Handler")));
+        assertThat((List<Object>) directive.get("Metrics")).hasSize(16);
+
+        assertThat(document.get("Handler")).isEqualTo("Create");
+        assertThat(document.get("GetResourcePolicyCalls")).isEqualTo(2);
+        assertThat(document.get("GetResourcePolicyErrors")).isEqualTo(1);
+        assertThat(document.get("GetResourcePolicyErrorClass")).isEqualTo("NotFoundException");
+        assertThat(document.get("GetResourcePolicyLatency")).isEqualTo(Arrays.asList(2.0, 2.0));
+        assertThat(document.get("GetResourcePolicyPayloadBytes")).isEqualTo(8);
+        assertThat(document.get("PutResourcePolicyCalls")).isEqualTo(1);
+        assertThat(document.get("PutResourcePolicyErrors")).isEqualTo(0);
+        assertThat(document.get("PutResourcePolicyPayloadBytes")).isEqualTo(16);
+        assertThat(document).doesNotContainKey("PutResourcePolicyErrorClass");
+        assertThat(document.get("StabilizationAttempts")).isEqualTo(3);
+        assertThat(document.get("StabilizationWait")).isEqualTo(600);
+        assertThat(document.get("Callbacks")).isEqualTo(1);
+        assertThat(document.get("RateLimitWait")).isEqualTo(0);
+        assertThat(document.get("RateLimited")).isEqualTo(0);
+        assertThat(document.get("Retries")).isEqualTo(0);
+        assertThat(document.get("RegistryCacheHits")).isEqualTo(1);
+        assertThat(document.get("RegistryCacheMisses")).isEqualTo(0);
+    }
+
+    @Test
+    public void testFlushLogsOnce() {
+        //GIVEN
+        final Logger logger = mock(Logger.class);
+        caller.invoke(proxy, PutResourcePolicyRequest.builder().registryName(REGISTRY_NAME).policy("{}").build(),
+                simulator::putResourcePolicy);
+
+        //WHEN
+        metrics.flush(logger);
+
+        //THEN
+        verify(logger, times(1)).log(anyString());
+    }
+
+    private static GetResourcePolicyRequest get() {
+        return GetResourcePolicyRequest.builder().registryName(REGISTRY_NAME).build();
+    }
+}
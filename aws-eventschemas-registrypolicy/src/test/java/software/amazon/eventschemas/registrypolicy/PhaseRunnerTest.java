@@ -0,0 +1,108 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.services.schemas.model.InternalServerErrorException;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PhaseRunnerTest {
+
+    private final Logger logger = mock(Logger.class);
+    private final Metrics metrics = new Metrics("Test");
+    private final ResourceModel model = ResourceModel.builder().registryName("test-registry").build();
+
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
+    @Test
+    public void testTransientErrorYields() {
+        //GIVEN
+        final CallbackContext context = CallbackContext.start(CallbackContext.Phase.WRITE, System.currentTimeMillis());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> event = runner(Stabilizer.builder().build()).run(model, context, () -> {
+            throw retriesExhausted();
+        });
+
+        //THEN
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(event.getCallbackDelaySeconds()).isEqualTo(PhaseRunner.TRANSIENT_ERROR_CALLBACK_DELAY_SECONDS);
+        assertThat(event.getCallbackContext()).isSameAs(context);
+        assertThat(event.getResourceModel()).isSameAs(model);
+    }
+
+    @Test
+    public void testTransientErrorFailsWhenRunOnce() {
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> event = PhaseRunner.runOnce(metrics, logger, model, null, () -> {
+            throw retriesExhausted();
+        });
+
+        //THEN
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(event.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceInternalError);
+    }
+
+    @Test
+    public void testStabilizedContextIsDone() {
+        //GIVEN
+        final CallbackContext context = CallbackContext.start(CallbackContext.Phase.STABILIZE, System.currentTimeMillis());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> event = runner(Stabilizer.builder().build())
+                .stabilize(model, "test-registry", context, "PutResourcePolicy", () -> true);
+
+        //THEN
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(context.getPhase()).isEqualTo(CallbackContext.Phase.DONE);
+        assertThat(context.getPolls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUnstabilizedContextCallsBack() {
+        //GIVEN
+        final CallbackContext context = CallbackContext.start(CallbackContext.Phase.STABILIZE, System.currentTimeMillis());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> event = runner(Stabilizer.builder().budgetMillis(0).build())
+                .stabilize(model, "test-registry", context, "PutResourcePolicy", () -> false);
+
+        //THEN
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(event.getCallbackDelaySeconds()).isEqualTo(PropagationEstimator.DEFAULT_CALLBACK_DELAY_SECONDS);
+        assertThat(context.getPhase()).isEqualTo(CallbackContext.Phase.STABILIZE);
+    }
+
+    @Test
+    public void testPhaseWithoutStabilizationCannotResume() {
+        //GIVEN
+        final CallbackContext context = CallbackContext.start(CallbackContext.Phase.PREFLIGHT, System.currentTimeMillis());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> event = runner(Stabilizer.builder().build())
+                .stabilize(model, "test-registry", context, "PutResourcePolicy", () -> true);
+
+        //THEN
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(event.getErrorCode()).isEqualTo(HandlerErrorCode.InternalFailure);
+    }
+
+    private PhaseRunner runner(Stabilizer stabilizer) {
+        final Deadline deadline = new Deadline(60_000L, ClientOverrideConfiguration.builder().build(), System::currentTimeMillis);
+        return new PhaseRunner(stabilizer, metrics, new SchemasCaller(metrics, deadline), logger);
+    }
+
+    private static RetriesExhaustedException retriesExhausted() {
+        return new RetriesExhaustedException("PutResourcePolicy", 3, ErrorClassifier.Category.RETRYABLE,
+                InternalServerErrorException.builder().statusCode(500).message("Injected failure").build());
+    }
+}
@@ -0,0 +1,97 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PolicyCanonicalizerTest {
+
+    @Test
+    public void testKeyOrderIsIgnored() {
+        //GIVEN
+        final Map<String, Object> left = new LinkedHashMap<>();
+        left.put("Version", "2012-10-17");
+        left.put("Statement", "statement");
+        final Map<String, Object> right = new LinkedHashMap<>();
+        right.put("Statement", "statement");
+        right.put("Version", "2012-10-17");
+
+        //THEN
+        assertThat(PolicyCanonicalizer.equivalent(left, right)).isTrue();
+    }
+
+    @Test
+    public void testSingleElementArrayMatchesString() {
+        assertThat(PolicyCanonicalizer.equivalent(
+                Collections.singletonMap("Action", Collections.singletonList("schemas:*")),
+                Collections.singletonMap("Action", "schemas:*"))).isTrue();
+    }
+
+    @Test
+    public void testDifferentValuesDoNotMatch() {
+        assertThat(PolicyCanonicalizer.equivalent(
+                Collections.singletonMap("Action", Arrays.asList("schemas:*", "events:*")),
+                Collections.singletonMap("Action", "schemas:*"))).isFalse();
+    }
+
+    @Test
+    public void testActionResourceAndPrincipalOrderIsIgnored() {
+        //GIVEN
+        final Map<String, Object> left = new LinkedHashMap<>();
+        left.put("Action", Arrays.asList("schemas:DescribeRegistry", "schemas:GetResourcePolicy"));
+        left.put("Resource", Arrays.asList("arn:b", "arn:a", "arn:a"));
+        left.put("Principal", Collections.singletonMap("AWS", Arrays.asList("111111111111", "222222222222")));
+        final Map<String, Object> right = new LinkedHashMap<>();
+        right.put("Action", Arrays.asList("schemas:GetResourcePolicy", "schemas:DescribeRegistry"));
+        right.put("Resource", Arrays.asList("arn:a", "arn:b"));
+        right.put("Principal", Collections.singletonMap("AWS", Arrays.asList("222222222222", "111111111111")));
+
+        //THEN
+        assertThat(PolicyCanonicalizer.equivalent(left, right)).isTrue();
+    }
+
+    @Test
+    public void testStatementOrderIsIgnored() {
+        //GIVEN
+        final Map<String, Object> allow = Collections.singletonMap("Effect", "Allow");
+        final Map<String, Object> deny = Collections.singletonMap("Effect", "Deny");
+
+        //THEN
+        assertThat(PolicyCanonicalizer.equivalent(
+                Collections.singletonMap("Statement", Arrays.asList(allow, deny)),
+                Collections.singletonMap("Statement", Arrays.asList(deny, allow)))).isTrue();
+    }
+
+    @Test
+    public void testOtherArraysKeepTheirOrder() {
+        assertThat(PolicyCanonicalizer.equivalent(
+                Collections.singletonMap("Condition", Arrays.asList("a", "b")),
+                Collections.singletonMap("Condition", Arrays.asList("b", "a")))).isFalse();
+    }
+
+    @Test
+    public void testDigest() throws IOException {
+        //GIVEN
+        final Map<String, Object> left = new LinkedHashMap<>();
+        left.put("Version", "2012-10-17");
+        left.put("Statement", Collections.singletonMap("Action", Arrays.asList("schemas:b", "schemas:a")));
+        final Map<String, Object> right = new LinkedHashMap<>();
+        right.put("Statement", Collections.singletonList(Collections.singletonMap("Action", Arrays.asList("schemas:a", "schemas:b"))));
+        right.put("Version", "2012-10-17");
+
+        //WHEN
+        final String digest = PolicyCanonicalizer.digest(left);
+
+        //THEN
+        assertThat(digest).matches("[0-9a-f]{64}");
+        assertThat(PolicyCanonicalizer.digest(right)).isEqualTo(digest);
+        assertThat(PolicyCanonicalizer.digest(Collections.singletonMap("Version", "2012-10-17"))).isNotEqualTo(digest);
+        assertThat(PolicyCanonicalizer.digest(null)).isNull();
+    }
+}
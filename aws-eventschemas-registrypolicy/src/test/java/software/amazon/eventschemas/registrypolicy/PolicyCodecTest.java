@@ -0,0 +1,63 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PolicyCodecTest {
+
+    private static final String POLICY = "{ \"Version\": \"2012-10-17\",\n"
+            + "  \"Statement\": [ { \"Sid\": \"1\", \"Effect\": \"Allow\", \"Action\": [\"schemas:*\"], \"Priority\": 10, \"Weight\": 0.5, \"Enabled\": true, \"Condition\": null } ] }";
+
+    @Test
+    public void testParse() throws IOException {
+        //WHEN
+        final Map<String, Object> policy = PolicyCodec.parse(POLICY);
+
+        //THEN
+        final Map<String, Object> statement = new LinkedHashMap<>();
+        statement.put("Sid", "1");
+        statement.put("Effect", "Allow");
+        statement.put("Action", Collections.singletonList("schemas:*"));
+        statement.put("Priority", 10);
+        statement.put("Weight", 0.5);
+        statement.put("Enabled", true);
+        statement.put("Condition", null);
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("Version", "2012-10-17");
+        expected.put("Statement", Collections.singletonList(statement));
+        assertThat(policy).isEqualTo(expected);
+    }
+
+    @Test
+    public void testWriteIsCompactAndRoundTrips() throws IOException {
+        //WHEN
+        final String json = PolicyCodec.write(PolicyCodec.parse(POLICY));
+
+        //THEN
+        assertThat(json).doesNotContain(" ", "\n");
+        assertThat(PolicyCodec.parse(json)).isEqualTo(PolicyCodec.parse(POLICY));
+    }
+
+    @Test
+    public void testMalformedPolicy() {
+        assertThrows(JsonProcessingException.class, () -> PolicyCodec.parse("{\"Version\": "));
+        assertThrows(JsonProcessingException.class, () -> PolicyCodec.parse("[\"Version\"]"));
+        assertThrows(JsonProcessingException.class, () -> PolicyCodec.parse("{} {}"));
+    }
+
+    @Test
+    public void testWriteNull() throws IOException {
+        assertThat(PolicyCodec.write(null)).isEqualTo("null");
+        assertThat(PolicyCodec.write(Collections.singletonMap("Action", Arrays.asList("a", "b"))))
+                .isEqualTo("{\"Action\":[\"a\",\"b\"]}");
+    }
+}
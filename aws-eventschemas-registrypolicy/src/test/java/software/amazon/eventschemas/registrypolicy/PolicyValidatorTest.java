@@ -0,0 +1,86 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Map;
+
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PolicyValidatorTest {
+
+    private static final String STATEMENT = "{\"Sid\":\"Read\",\"Effect\":\"Allow\","
+            + "\"Principal\":{\"AWS\":[\"arn:aws:iam::123456789012:root\"],\"Service\":\"events.amazonaws.com\"},"
+            + "\"Action\":[\"schemas:DescribeRegistry\",\"schemas:ListSchemas\"],"
+            + "\"Resource\":\"arn:aws:schemas:us-east-1:123456789012:registry/test-registry\","
+            + "\"Condition\":{\"StringEquals\":{\"aws:PrincipalOrgID\":\"o-1234567890\"}}}";
+
+    @Test
+    public void testValidPolicies() throws IOException {
+        PolicyValidator.validate(null);
+        PolicyValidator.validate(PolicyCodec.parse("{\"Version\":\"2012-10-17\",\"Id\":\"policy\",\"Statement\":" + STATEMENT + "}"));
+        PolicyValidator.validate(PolicyCodec.parse("{\"Statement\":[" + STATEMENT + ","
+                + "{\"Effect\":\"Deny\",\"NotPrincipal\":\"*\",\"NotAction\":\"schemas:*\",\"NotResource\":[\"*\"]}]}"));
+    }
+
+    @Test
+    public void testDocumentStructure() {
+        assertThat(assertThrows(CfnInvalidRequestException.class, () -> PolicyValidator.validate("{}")).getMessage())
+                .contains("Policy must be a JSON object");
+        assertInvalid("{\"Version\":\"2012-10-17\"}", "Policy must have a Statement");
+        assertInvalid("{\"Version\":\"2020-01-01\",\"Statement\":" + STATEMENT + "}", "Version must be 2012-10-17 or 2008-10-17, not [2020-01-01]");
+        assertInvalid("{\"Statement\":" + STATEMENT + ",\"Statements\":[]}", "Policy has unknown element [Statements]");
+        assertInvalid("{\"Statement\":[]}", "Statement must not be empty");
+        assertInvalid("{\"Statement\":\"Allow\"}", "Statement must be a JSON object or an array of them");
+        assertInvalid("{\"Statement\":[" + STATEMENT + ",1]}", "Statement[1] must be a JSON object");
+    }
+
+    @Test
+    public void testStatementElements() {
+        assertInvalid("{\"Statement\":[{\"Effect\":\"Permit\"}]}", "Statement[0].Effect must be Allow or Deny, not [Permit]");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Action\":\"schemas:*\"}}", "Statement must have Principal or NotPrincipal");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"*\",\"NotPrincipal\":\"*\",\"Action\":\"schemas:*\"}}",
+                "Statement cannot have both Principal and NotPrincipal");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"*\"}}", "Statement must have Action or NotAction");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"*\",\"Action\":[]}}",
+                "Statement.Action must be a string or a non-empty array of strings");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"*\",\"Action\":\"schemas:*\",\"Resource\":[1]}}",
+                "Statement.Resource must only contain strings, not [1]");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"*\",\"Action\":\"schemas:*\",\"Effects\":\"Allow\"}}",
+                "Statement has unknown element [Effects]");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"*\",\"Action\":\"schemas:*\",\"Condition\":{\"Bool\":true}}}",
+                "Statement.Condition operator [Bool] must be a JSON object");
+    }
+
+    @Test
+    public void testPrincipalForms() {
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":\"123456789012\",\"Action\":\"schemas:*\"}}",
+                "Statement.Principal must be \"*\" or a JSON object of principals by type");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":{\"User\":\"me\"},\"Action\":\"schemas:*\"}}",
+                "Statement.Principal has unknown principal type [User], expected AWS, Service, Federated or CanonicalUser");
+        assertInvalid("{\"Statement\":{\"Effect\":\"Allow\",\"Principal\":{\"AWS\":[]},\"Action\":\"schemas:*\"}}",
+                "Statement.Principal.AWS must be a string or a non-empty array of strings");
+    }
+
+    @Test
+    public void testDocumentLength() throws IOException {
+        //GIVEN
+        final Map<String, Object> policy = PolicyCodec.parse("{\"Statement\":{\"Sid\":\"\\\"quoted\\\"\\n\\u0001é\",\"Effect\":\"Allow\","
+                + "\"Principal\":\"*\",\"Action\":\"schemas:*\"},\"Version\":\"2012-10-17\"}");
+        final int length = PolicyCodec.write(policy).length();
+
+        //THEN
+        PolicyValidator.validate(policy, length);
+        final CfnInvalidRequestException exception = assertThrows(CfnInvalidRequestException.class, () ->
+                PolicyValidator.validate(policy, length - 1));
+        assertThat(exception.getMessage()).contains("Policy must be at most " + (length - 1) + " characters long");
+    }
+
+    private static void assertInvalid(String policy, String message) {
+        final CfnInvalidRequestException exception = assertThrows(CfnInvalidRequestException.class, () ->
+                PolicyValidator.validate(PolicyCodec.parse(policy)));
+        assertThat(exception.getMessage()).contains(message);
+    }
+}
@@ -0,0 +1,64 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrimerTest {
+
+    @Test
+    public void testPrimeOnInitOnlyOffTheRequestPath() {
+        //GIVEN
+        final Map<String, String> environment = new HashMap<>();
+
+        //THEN
+        assertThat(Primer.shouldPrimeOnInit(environment::get)).isFalse();
+
+        environment.put(Primer.INITIALIZATION_TYPE_ENV, "on-demand");
+        assertThat(Primer.shouldPrimeOnInit(environment::get)).isFalse();
+
+        environment.put(Primer.INITIALIZATION_TYPE_ENV, "provisioned-concurrency");
+        assertThat(Primer.shouldPrimeOnInit(environment::get)).isTrue();
+
+        environment.put(Primer.INITIALIZATION_TYPE_ENV, "snap-start");
+        assertThat(Primer.shouldPrimeOnInit(environment::get)).isTrue();
+
+        environment.put(Primer.PRIME_ON_INIT_ENV, "false");
+        assertThat(Primer.shouldPrimeOnInit(environment::get)).isFalse();
+
+        environment.put(Primer.INITIALIZATION_TYPE_ENV, "on-demand");
+        environment.put(Primer.PRIME_ON_INIT_ENV, "true");
+        assertThat(Primer.shouldPrimeOnInit(environment::get)).isTrue();
+    }
+
+    @Test
+    public void testPrimeRunsEveryStepOnce() {
+        //WHEN
+        final List<String> failedSteps = Primer.prime();
+
+        //THEN
+        assertThat(failedSteps).isEmpty();
+        assertThat(Primer.prime()).isSameAs(failedSteps);
+    }
+
+    @Test
+    public void testWarmupEntrypoint() throws IOException {
+        //GIVEN
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        //WHEN
+        new WarmupEntrypoint().handleRequest(new ByteArrayInputStream(new byte[0]), output, null);
+
+        //THEN
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8))
+                .matches("\\{\"primedMillis\":\\d+,\"failedSteps\":\\[]}");
+    }
+}
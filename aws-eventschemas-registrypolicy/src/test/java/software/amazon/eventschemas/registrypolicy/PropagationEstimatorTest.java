@@ -0,0 +1,132 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PropagationEstimatorTest {
+
+    private static final String OPERATION = "PutResourcePolicy";
+    private static final long TIMEOUT_MILLIS = 300_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void testDefaultDelayWithoutSamples() {
+        //GIVEN
+        final PropagationEstimator estimator = new PropagationEstimator(90, now::get);
+        final CallbackContext context = new CallbackContext();
+
+        //WHEN
+        final int delaySeconds = estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS);
+
+        //THEN
+        assertThat(delaySeconds).isEqualTo(PropagationEstimator.DEFAULT_CALLBACK_DELAY_SECONDS);
+        assertThat(context.getPropagation()).isNull();
+    }
+
+    @Test
+    public void testDelayIsPercentileOfSlowerSamples() {
+        //GIVEN
+        final PropagationEstimator estimator = new PropagationEstimator(90, now::get);
+        final CallbackContext context = new CallbackContext();
+        now.set(1_500L);
+        for (int i = 0; i < 9; i++) {
+            estimator.stabilized(OPERATION, context);
+        }
+        now.set(15_000L);
+        estimator.stabilized(OPERATION, context);
+
+        //WHEN
+        now.set(0L);
+        final int fresh = estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS);
+        now.set(2_500L);
+        final int late = estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS);
+
+        //THEN
+        assertThat(fresh).isEqualTo(2);
+        // only the slow sample is still pending after 2.5 seconds; its bucket ends at 20 seconds
+        assertThat(late).isEqualTo(18);
+        assertThat(estimator.callbackDelaySeconds("DeleteResourcePolicy", context, TIMEOUT_MILLIS))
+                .isEqualTo(PropagationEstimator.DEFAULT_CALLBACK_DELAY_SECONDS);
+    }
+
+    @Test
+    public void testDelayStaysWithinBounds() {
+        //GIVEN
+        final PropagationEstimator estimator = new PropagationEstimator(100, now::get);
+        final CallbackContext context = new CallbackContext();
+        now.set(100L);
+        estimator.stabilized(OPERATION, context);
+        now.set(400_000L);
+        estimator.stabilized(OPERATION, context);
+
+        //THEN
+        now.set(0L);
+        assertThat(estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS)).isEqualTo(300);
+        now.set(200_000L);
+        assertThat(estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS)).isEqualTo(100);
+        now.set(299_900L);
+        assertThat(estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS))
+                .isEqualTo(PropagationEstimator.MIN_CALLBACK_DELAY_SECONDS);
+    }
+
+    @Test
+    public void testSeedsOnlyAnEmptyHistogram() {
+        //GIVEN
+        final PropagationEstimator estimator = new PropagationEstimator(90, now::get);
+        final CallbackContext seeded = CallbackContext.builder()
+                .propagation(new int[]{0, 0, 0, 0, 0, 0, 0, 0, 4})
+                .build();
+        final CallbackContext other = CallbackContext.builder()
+                .propagation(new int[]{4})
+                .build();
+
+        //WHEN
+        estimator.seed(OPERATION, seeded);
+        estimator.seed(OPERATION, other);
+
+        //THEN
+        assertThat(estimator.callbackDelaySeconds(OPERATION, other, TIMEOUT_MILLIS)).isEqualTo(20);
+        assertThat(other.getPropagation()).containsExactly(0, 0, 0, 0, 0, 0, 0, 0, 4);
+    }
+
+    @Test
+    public void testOldSamplesFade() {
+        //GIVEN
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        //WHEN
+        for (int i = 0; i <= LatencyHistogram.MAX_SAMPLES; i++) {
+            histogram.record(i % 2 == 0 ? 100L : 1_000L);
+        }
+
+        //THEN
+        assertThat(histogram.snapshot()).containsExactly(2_500, 0, 2_500);
+    }
+
+    @Test
+    public void testDisabled() {
+        //GIVEN
+        final PropagationEstimator estimator = new PropagationEstimator(0, now::get);
+        final CallbackContext context = new CallbackContext();
+        now.set(1_000L);
+        estimator.stabilized(OPERATION, context);
+
+        //WHEN
+        final int delaySeconds = estimator.callbackDelaySeconds(OPERATION, context, TIMEOUT_MILLIS);
+
+        //THEN
+        assertThat(estimator.isEnabled()).isFalse();
+        assertThat(delaySeconds).isEqualTo(PropagationEstimator.DEFAULT_CALLBACK_DELAY_SECONDS);
+        assertThat(context.getPropagation()).isNull();
+    }
+
+    @Test
+    public void testInvalidPercentile() {
+        assertThrows(IllegalArgumentException.class, () -> new PropagationEstimator(101, now::get));
+    }
+}
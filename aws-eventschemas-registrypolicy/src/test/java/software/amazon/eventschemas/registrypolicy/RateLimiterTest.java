@@ -0,0 +1,81 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private RateLimiter rateLimiter(final Map<String, Double> permitsPerSecond) {
+        // sleeping moves the fake clock forward
+        return new RateLimiter(permitsPerSecond, nanos::get, millis -> nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    @Test
+    public void testBurstThenSustainedRate() {
+        //GIVEN
+        final RateLimiter rateLimiter = rateLimiter(Collections.singletonMap(RateLimiter.ANY_OPERATION, 4.0));
+
+        //THEN
+        for (int i = 0; i < 4; i++) {
+            assertThat(rateLimiter.acquire("GetResourcePolicy", SECOND)).isEqualTo(0);
+        }
+        assertThat(rateLimiter.acquire("GetResourcePolicy", SECOND)).isEqualTo(SECOND / 4);
+        assertThat(nanos.get()).isEqualTo(SECOND / 4);
+        assertThat(rateLimiter.acquire("GetResourcePolicy", SECOND)).isEqualTo(SECOND / 4);
+    }
+
+    @Test
+    public void testBucketRefillsWhileIdle() {
+        //GIVEN
+        final RateLimiter rateLimiter = rateLimiter(Collections.singletonMap(RateLimiter.ANY_OPERATION, 2.0));
+        rateLimiter.acquire("GetResourcePolicy", SECOND);
+        rateLimiter.acquire("GetResourcePolicy", SECOND);
+
+        //WHEN
+        nanos.addAndGet(10 * SECOND);
+
+        //THEN
+        assertThat(rateLimiter.acquire("GetResourcePolicy", 0)).isEqualTo(0);
+        assertThat(rateLimiter.acquire("GetResourcePolicy", 0)).isEqualTo(0);
+        assertThat(rateLimiter.acquire("GetResourcePolicy", 0)).isEqualTo(-1);
+    }
+
+    @Test
+    public void testWaitBeyondBudgetTakesNoToken() {
+        //GIVEN
+        final RateLimiter rateLimiter = rateLimiter(Collections.singletonMap(RateLimiter.ANY_OPERATION, 1.0));
+        rateLimiter.acquire("PutResourcePolicy", 0);
+
+        //THEN
+        assertThat(rateLimiter.acquire("PutResourcePolicy", SECOND / 2)).isEqualTo(-1);
+        assertThat(nanos.get()).isEqualTo(0);
+        assertThat(rateLimiter.acquire("PutResourcePolicy", SECOND)).isEqualTo(SECOND);
+    }
+
+    @Test
+    public void testOperationsHaveSeparateBuckets() {
+        //GIVEN
+        final Map<String, Double> permitsPerSecond = new HashMap<>();
+        permitsPerSecond.put("PutResourcePolicy", 1.0);
+        permitsPerSecond.put(RateLimiter.ANY_OPERATION, 0.0);
+        final RateLimiter rateLimiter = rateLimiter(permitsPerSecond);
+
+        //THEN
+        assertThat(rateLimiter.acquire("PutResourcePolicy", 0)).isEqualTo(0);
+        assertThat(rateLimiter.acquire("PutResourcePolicy", 0)).isEqualTo(-1);
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.acquire("GetResourcePolicy", 0)).isEqualTo(0);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package software.amazon.eventschemas.registrypolicy;
 
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.NotFoundException;
@@ -27,6 +28,10 @@ import static org.mockito.Mockito.mock;
 @ExtendWith(MockitoExtension.class)
 public class ReadHandlerTest {
 
+    // stands in for the remaining time of the mocked proxy
+    private static final Deadline.Factory DEADLINES =
+            proxy -> new Deadline(60_000L, ClientOverrideConfiguration.builder().build(), System::currentTimeMillis);
+
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
@@ -42,7 +47,7 @@ public class ReadHandlerTest {
     @Test
     public void testSuccessStateWithEventBus() {
         //GIVEN
-        final ReadHandler handler = new ReadHandler();
+        final ReadHandler handler = new ReadHandler(DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .id("test-registry") // read operation id ile olmalidi deyesen
                 .build();
@@ -71,6 +76,7 @@ public class ReadHandlerTest {
         assertThat(response.getCallbackContext()).isNull();
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
+        assertThat(response.getResourceModel().getPolicyDigest()).hasSize(64);
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
@@ -79,7 +85,7 @@ public class ReadHandlerTest {
     @Test
     public void testResourceNotFoundException() {
         //GIVEN
-        final ReadHandler handler = new ReadHandler();
+        final ReadHandler handler = new ReadHandler(DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .id("test-registry")
                 .build();
@@ -101,7 +107,7 @@ public class ReadHandlerTest {
     @Test
     public void testSchemasException() {
         //GIVEN
-        final ReadHandler handler = new ReadHandler();
+        final ReadHandler handler = new ReadHandler(DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .id("test-registry")
                 .build();
@@ -119,4 +125,31 @@ public class ReadHandlerTest {
         assertThrows(CfnGeneralServiceException.class, () ->
                 handler.handleRequest(proxy, request, null, logger));
     }
+
+    @Test
+    public void testMalformedPolicy() {
+        //GIVEN
+        final ReadHandler handler = new ReadHandler(DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        GetResourcePolicyResponse getResourcePolicyResponse = GetResourcePolicyResponse.builder()
+                .policy("{\"Version\": ")
+                .revisionId("1")
+                .build();
+
+        // Mock
+        doReturn(getResourcePolicyResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        assertThrows(CfnGeneralServiceException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+    }
 }
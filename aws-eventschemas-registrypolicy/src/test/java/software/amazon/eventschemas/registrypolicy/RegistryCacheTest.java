@@ -0,0 +1,68 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegistryCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void testEntriesExpire() {
+        //GIVEN
+        final RegistryCache cache = new RegistryCache(1_000, 10, now::get);
+        cache.put("registry");
+
+        //THEN
+        now.set(999);
+        assertThat(cache.contains("registry")).isTrue();
+        now.set(1_000);
+        assertThat(cache.contains("registry")).isFalse();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        //GIVEN
+        final RegistryCache cache = new RegistryCache(1_000, 2, now::get);
+        cache.put("a");
+        cache.put("b");
+        cache.contains("a");
+
+        //WHEN
+        cache.put("c");
+
+        //THEN
+        assertThat(cache.contains("a")).isTrue();
+        assertThat(cache.contains("b")).isFalse();
+        assertThat(cache.contains("c")).isTrue();
+    }
+
+    @Test
+    public void testInvalidate() {
+        //GIVEN
+        final RegistryCache cache = new RegistryCache(1_000, 10, now::get);
+        cache.put("registry");
+
+        //WHEN
+        cache.invalidate("registry");
+
+        //THEN
+        assertThat(cache.contains("registry")).isFalse();
+    }
+
+    @Test
+    public void testDisabled() {
+        //GIVEN
+        final RegistryCache cache = RegistryCache.disabled();
+
+        //WHEN
+        cache.put("registry");
+
+        //THEN
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.contains("registry")).isFalse();
+    }
+}
@@ -0,0 +1,38 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testDecorrelatedJitter() {
+        //GIVEN
+        final RetryPolicy retryPolicy = RetryPolicy.builder()
+                .baseDelayMillis(100)
+                .maxDelayMillis(1_000)
+                .build();
+
+        //THEN
+        assertThat(retryPolicy.nextDelayMillis(0)).isEqualTo(100);
+        long delay = 0;
+        for (int i = 0; i < 1_000; i++) {
+            final long next = retryPolicy.nextDelayMillis(delay);
+            assertThat(next).isBetween(100L, Math.min(1_000L, Math.max(100L, delay * 3)));
+            delay = next;
+        }
+    }
+
+    @Test
+    public void testOnlyRetryableErrorsAreRetried() {
+        //GIVEN
+        final RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(3).build();
+
+        //THEN
+        assertThat(retryPolicy.shouldRetry(ErrorClassifier.Category.RETRYABLE, 1)).isTrue();
+        assertThat(retryPolicy.shouldRetry(ErrorClassifier.Category.THROTTLING, 2)).isTrue();
+        assertThat(retryPolicy.shouldRetry(ErrorClassifier.Category.THROTTLING, 3)).isFalse();
+        assertThat(retryPolicy.shouldRetry(ErrorClassifier.Category.TERMINAL, 1)).isFalse();
+    }
+}
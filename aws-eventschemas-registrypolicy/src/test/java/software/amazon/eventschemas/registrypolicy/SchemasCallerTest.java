@@ -0,0 +1,165 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.InternalServerErrorException;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.TooManyRequestsException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SchemasCallerTest {
+
+    private static final String REGISTRY_NAME = "test-registry";
+
+    private static final RetryPolicy RETRY_POLICY = RetryPolicy.builder().sleeper(millis -> { }).build();
+
+    private SchemasSimulator simulator;
+    private AmazonWebServicesClientProxy proxy;
+    private Metrics metrics;
+    private SchemasCaller caller;
+
+    @BeforeEach
+    public void setup() {
+        simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        proxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 60_000L);
+        metrics = new Metrics("Create");
+        caller = new SchemasCaller(metrics, RateLimiter.unlimited(), RETRY_POLICY, System::nanoTime, ExecutionMode.SYNC, Deadline.none());
+    }
+
+    @Test
+    public void testRateLimited() throws IOException {
+        //GIVEN
+        final RateLimiter rateLimiter = new RateLimiter(
+                Collections.singletonMap(RateLimiter.ANY_OPERATION, 0.001), System::nanoTime, Thread::sleep);
+        final SchemasCaller limited = new SchemasCaller(metrics, rateLimiter, RETRY_POLICY, System::nanoTime, ExecutionMode.SYNC, Deadline.none());
+        limited.invoke(proxy, get(), request -> GetResourcePolicyResponse.builder().build());
+
+        //WHEN
+        assertThrows(RateLimitedException.class, () ->
+                limited.invoke(proxy, get(), simulator::getResourcePolicy));
+
+        //THEN
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(0);
+        assertThat(PolicyCodec.parse(metrics.toEmf()).get("RateLimited")).isEqualTo(1);
+    }
+
+    @Test
+    public void testRateLimitWaitStopsShortOfTheDeadline() throws IOException {
+        //GIVEN
+        // a token every 2 seconds, on a clock that does not move
+        final RateLimiter rateLimiter = new RateLimiter(
+                Collections.singletonMap(RateLimiter.ANY_OPERATION, 0.5), () -> 0L, millis -> { });
+        final Deadline deadline = new Deadline(Deadline.RESERVE_MILLIS + Deadline.MIN_STEP_MILLIS + 1_000L,
+                ClientOverrideConfiguration.builder().build(), () -> 1_000L);
+        final SchemasCaller late = new SchemasCaller(metrics, rateLimiter, RETRY_POLICY, System::nanoTime, ExecutionMode.SYNC, deadline);
+        final SchemasCaller early = new SchemasCaller(metrics, rateLimiter, RETRY_POLICY, System::nanoTime, ExecutionMode.SYNC, Deadline.none());
+        simulator.putResourcePolicy(PutResourcePolicyRequest.builder().registryName(REGISTRY_NAME).policy("{}").build());
+        late.invoke(proxy, get(), simulator::getResourcePolicy);
+
+        //WHEN
+        assertThrows(RateLimitedException.class, () ->
+                late.invoke(proxy, get(), simulator::getResourcePolicy));
+        early.invoke(proxy, get(), simulator::getResourcePolicy);
+
+        //THEN
+        final Map<String, Object> document = PolicyCodec.parse(metrics.toEmf());
+        assertThat(document.get("RateLimited")).isEqualTo(1);
+        assertThat(document.get("RateLimitWait")).isEqualTo(2_000);
+    }
+
+    @Test
+    public void testNoCallPastTheDeadline() {
+        //GIVEN
+        final Deadline deadline = new Deadline(Deadline.RESERVE_MILLIS + Deadline.MIN_STEP_MILLIS - 1,
+                ClientOverrideConfiguration.builder().build(), () -> 1_000L);
+        final SchemasCaller late = new SchemasCaller(metrics, RateLimiter.unlimited(), RETRY_POLICY, System::nanoTime,
+                ExecutionMode.SYNC, deadline);
+
+        //WHEN
+        assertThrows(DeadlineExceededException.class, () ->
+                late.invoke(proxy, get(), simulator::getResourcePolicy));
+        assertThrows(DeadlineExceededException.class, () ->
+                late.invokeAsync(proxy, get(), simulator.asyncClient()::getResourcePolicy));
+
+        //THEN
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(0);
+    }
+
+    @Test
+    public void testRetriesServiceErrors() throws IOException {
+        //GIVEN
+        simulator.failNext(SchemasSimulator.PUT_RESOURCE_POLICY, internalServerError(), tooManyRequests());
+        simulator.failNext(SchemasSimulator.GET_RESOURCE_POLICY, internalServerError());
+
+        //WHEN
+        caller.invoke(proxy, PutResourcePolicyRequest.builder().registryName(REGISTRY_NAME).policy("{}").build(),
+                simulator::putResourcePolicy);
+        caller.invokeAsync(proxy, get(), simulator.asyncClient()::getResourcePolicy).join();
+
+        //THEN
+        assertThat(simulator.callCount(SchemasSimulator.PUT_RESOURCE_POLICY)).isEqualTo(3);
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(2);
+        final Map<String, Object> document = PolicyCodec.parse(metrics.toEmf());
+        assertThat(document.get("PutResourcePolicyErrors")).isEqualTo(2);
+        assertThat(document.get("Retries")).isEqualTo(3);
+    }
+
+    @Test
+    public void testRetriesRunOut() {
+        //GIVEN
+        simulator.failNext(SchemasSimulator.GET_RESOURCE_POLICY,
+                internalServerError(), internalServerError(), tooManyRequests(),
+                tooManyRequests(), tooManyRequests(), tooManyRequests());
+
+        //WHEN
+        final RetriesExhaustedException error = assertThrows(RetriesExhaustedException.class, () ->
+                caller.invoke(proxy, get(), simulator::getResourcePolicy));
+        final CompletionException asyncError = assertThrows(CompletionException.class, () ->
+                caller.invokeAsync(proxy, get(), simulator.asyncClient()::getResourcePolicy).join());
+
+        //THEN
+        assertThat(error.getErrorCode()).isEqualTo(HandlerErrorCode.Throttling);
+        assertThat(error.getCause()).isInstanceOf(TooManyRequestsException.class);
+        assertThat(asyncError.getCause()).isInstanceOf(RetriesExhaustedException.class);
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(6);
+    }
+
+    @Test
+    public void testTerminalErrorsAreNotRetried() {
+        //WHEN
+        assertThrows(NotFoundException.class, () ->
+                caller.invoke(proxy, get(), simulator::getResourcePolicy));
+
+        //THEN
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(1);
+    }
+
+    private static GetResourcePolicyRequest get() {
+        return GetResourcePolicyRequest.builder().registryName(REGISTRY_NAME).build();
+    }
+
+    private static InternalServerErrorException internalServerError() {
+        return InternalServerErrorException.builder().statusCode(500).message("Injected failure").build();
+    }
+
+    private static TooManyRequestsException tooManyRequests() {
+        return TooManyRequestsException.builder().statusCode(429).message("Rate exceeded").build();
+    }
+}
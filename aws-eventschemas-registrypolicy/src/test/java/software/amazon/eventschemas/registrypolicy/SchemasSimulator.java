@@ -0,0 +1,376 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import lombok.Builder;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.schemas.SchemasAsyncClient;
+import software.amazon.awssdk.services.schemas.SchemasClient;
+import software.amazon.awssdk.services.schemas.model.ConflictException;
+import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryRequest;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryResponse;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.InternalServerErrorException;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesRequest;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesResponse;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.RegistrySummary;
+import software.amazon.awssdk.services.schemas.model.TooManyRequestsException;
+
+/**
+ * In-process stand-in for the Schemas registry policy APIs, meant for load tests and for tuning
+ * stabilization and retries off-cloud. Plug it in with {@link ClientBuilder#setSchemasClient} and
+ * {@link ClientBuilder#setSchemasAsyncClient} (using {@link #asyncClient()}).
+ *
+ * It reproduces the behaviour the handlers depend on: a new revision id on every write,
+ * {@link ConflictException} for a stale revision id, {@link NotFoundException} for a missing
+ * registry or policy, and writes that only become visible to reads after a propagation delay.
+ * Latency, throttling and server errors are drawn from a seeded {@link Random}, so a run is
+ * repeatable for a given seed; {@link #failNext} injects exact faults on top.
+ */
+class SchemasSimulator implements SchemasClient {
+
+    static final String DESCRIBE_REGISTRY = "DescribeRegistry";
+    static final String GET_RESOURCE_POLICY = "GetResourcePolicy";
+    static final String PUT_RESOURCE_POLICY = "PutResourcePolicy";
+    static final String DELETE_RESOURCE_POLICY = "DeleteResourcePolicy";
+    static final String LIST_REGISTRIES = "ListRegistries";
+
+    private static final int DEFAULT_LIST_PAGE_SIZE = 100;
+
+    // one thread per call in flight, like a non-blocking client, rather than the size of the common pool
+    private static final ExecutorService ASYNC_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "schemas-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Latency latency;
+    private final long propagationDelayMillis;
+    private final double throttlingRate;
+    private final double errorRate;
+    private final Random random;
+    private final Stabilizer.Sleeper sleeper;
+    private final LongSupplier clock;
+    private final int listPageSize;
+
+    // sorted, so that ListRegistries pages through a stable order
+    private final ConcurrentSkipListMap<String, PolicyVersions> registries = new ConcurrentSkipListMap<>();
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final Map<String, Queue<RuntimeException>> faults = new ConcurrentHashMap<>();
+    private final AtomicLong revisions = new AtomicLong();
+
+    @Builder
+    SchemasSimulator(
+            final Latency latency,
+            final long propagationDelayMillis,
+            final double throttlingRate,
+            final double errorRate,
+            final Long seed,
+            final Stabilizer.Sleeper sleeper,
+            final LongSupplier clock,
+            final int listPageSize) {
+        this.latency = latency == null ? Latency.none() : latency;
+        this.propagationDelayMillis = propagationDelayMillis;
+        this.throttlingRate = throttlingRate;
+        this.errorRate = errorRate;
+        this.random = seed == null ? new Random() : new Random(seed);
+        this.sleeper = sleeper == null ? Thread::sleep : sleeper;
+        this.clock = clock == null ? System::currentTimeMillis : clock;
+        this.listPageSize = listPageSize > 0 ? listPageSize : DEFAULT_LIST_PAGE_SIZE;
+    }
+
+    void createRegistry(final String registryName) {
+        registries.putIfAbsent(registryName, new PolicyVersions());
+    }
+
+    void deleteRegistry(final String registryName) {
+        registries.remove(registryName);
+    }
+
+    /**
+     * Makes the next calls to the given operation fail with {@code errors}, one call each, in order.
+     */
+    void failNext(final String operation, final RuntimeException... errors) {
+        final Queue<RuntimeException> queue = faults.computeIfAbsent(operation, key -> new ConcurrentLinkedQueue<>());
+        for (RuntimeException error : errors) {
+            queue.add(error);
+        }
+    }
+
+    /**
+     * Number of calls made to the given operation, including the ones that failed.
+     */
+    long callCount(final String operation) {
+        final AtomicLong count = calls.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public DescribeRegistryResponse describeRegistry(final DescribeRegistryRequest request) {
+        return call(DESCRIBE_REGISTRY, () -> {
+            registry(request.registryName());
+            return DescribeRegistryResponse.builder().registryName(request.registryName()).build();
+        });
+    }
+
+    /**
+     * Pages through the registries in name order. The next token is the name of the last registry
+     * returned; the request limit, if any, caps the page size.
+     */
+    @Override
+    public ListRegistriesResponse listRegistries(final ListRegistriesRequest request) {
+        return call(LIST_REGISTRIES, () -> {
+            final int pageSize = request.limit() == null ? listPageSize : Math.min(request.limit(), listPageSize);
+            final Map<String, PolicyVersions> remaining = request.nextToken() == null
+                    ? registries
+                    : registries.tailMap(request.nextToken(), false);
+            final List<RegistrySummary> page = new ArrayList<>(Math.min(pageSize, remaining.size()));
+            for (String registryName : remaining.keySet()) {
+                if (page.size() == pageSize) {
+                    break;
+                }
+                page.add(RegistrySummary.builder()
+                        .registryName(registryName)
+                        .registryArn("arn:aws:schemas:us-east-1:123456789012:registry/" + registryName)
+                        .build());
+            }
+            final String nextToken = page.size() == pageSize && !page.isEmpty()
+                    && registries.higherKey(page.get(page.size() - 1).registryName()) != null
+                    ? page.get(page.size() - 1).registryName()
+                    : null;
+            return ListRegistriesResponse.builder().registries(page).nextToken(nextToken).build();
+        });
+    }
+
+    @Override
+    public GetResourcePolicyResponse getResourcePolicy(final GetResourcePolicyRequest request) {
+        return call(GET_RESOURCE_POLICY, () -> {
+            final PolicyVersion version = registry(request.registryName()).visible(clock.getAsLong());
+            if (version == null || version.policy == null) {
+                throw notFound("Policy for registry " + request.registryName() + " does not exist");
+            }
+            return GetResourcePolicyResponse.builder().policy(version.policy).revisionId(version.revisionId).build();
+        });
+    }
+
+    @Override
+    public PutResourcePolicyResponse putResourcePolicy(final PutResourcePolicyRequest request) {
+        return call(PUT_RESOURCE_POLICY, () -> {
+            final PolicyVersions versions = registry(request.registryName());
+            synchronized (versions) {
+                final PolicyVersion latest = versions.latest;
+                final String latestRevisionId = latest == null ? null : latest.revisionId;
+                if (request.revisionId() != null && !request.revisionId().equals(latestRevisionId)) {
+                    throw ConflictException.builder()
+                            .statusCode(409)
+                            .message("Revision id " + request.revisionId() + " is not the latest revision")
+                            .build();
+                }
+                final long now = clock.getAsLong();
+                final PolicyVersion version = versions.write(
+                        request.policy(), String.valueOf(revisions.incrementAndGet()), now, now + propagationDelayMillis);
+                return PutResourcePolicyResponse.builder().policy(version.policy).revisionId(version.revisionId).build();
+            }
+        });
+    }
+
+    @Override
+    public DeleteResourcePolicyResponse deleteResourcePolicy(final DeleteResourcePolicyRequest request) {
+        return call(DELETE_RESOURCE_POLICY, () -> {
+            final PolicyVersions versions = registry(request.registryName());
+            synchronized (versions) {
+                if (versions.latest == null || versions.latest.policy == null) {
+                    throw notFound("Policy for registry " + request.registryName() + " does not exist");
+                }
+                final long now = clock.getAsLong();
+                versions.write(null, null, now, now + propagationDelayMillis);
+                return DeleteResourcePolicyResponse.builder().build();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous view of this simulator, sharing its state and fault configuration.
+     */
+    SchemasAsyncClient asyncClient() {
+        final SchemasSimulator simulator = this;
+        return new SchemasAsyncClient() {
+            @Override
+            public CompletableFuture<DescribeRegistryResponse> describeRegistry(final DescribeRegistryRequest request) {
+                return CompletableFuture.supplyAsync(() -> simulator.describeRegistry(request), ASYNC_EXECUTOR);
+            }
+
+            @Override
+            public CompletableFuture<ListRegistriesResponse> listRegistries(final ListRegistriesRequest request) {
+                return CompletableFuture.supplyAsync(() -> simulator.listRegistries(request), ASYNC_EXECUTOR);
+            }
+
+            @Override
+            public CompletableFuture<GetResourcePolicyResponse> getResourcePolicy(final GetResourcePolicyRequest request) {
+                return CompletableFuture.supplyAsync(() -> simulator.getResourcePolicy(request), ASYNC_EXECUTOR);
+            }
+
+            @Override
+            public CompletableFuture<PutResourcePolicyResponse> putResourcePolicy(final PutResourcePolicyRequest request) {
+                return CompletableFuture.supplyAsync(() -> simulator.putResourcePolicy(request), ASYNC_EXECUTOR);
+            }
+
+            @Override
+            public CompletableFuture<DeleteResourcePolicyResponse> deleteResourcePolicy(final DeleteResourcePolicyRequest request) {
+                return CompletableFuture.supplyAsync(() -> simulator.deleteResourcePolicy(request), ASYNC_EXECUTOR);
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private <T> T call(final String operation, final Supplier<T> action) {
+        calls.computeIfAbsent(operation, key -> new AtomicLong()).incrementAndGet();
+
+        final double throttleRoll;
+        final double errorRoll;
+        final long latencyMillis;
+        synchronized (random) {
+            throttleRoll = random.nextDouble();
+            errorRoll = random.nextDouble();
+            latencyMillis = latency.nextMillis(random);
+        }
+
+        if (latencyMillis > 0) {
+            try {
+                sleeper.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final Queue<RuntimeException> injected = faults.get(operation);
+        final RuntimeException fault = injected == null ? null : injected.poll();
+        if (fault != null) {
+            throw fault;
+        }
+        if (throttleRoll < throttlingRate) {
+            throw TooManyRequestsException.builder()
+                    .statusCode(429)
+                    .awsErrorDetails(errorDetails(operation, "TooManyRequestsException"))
+                    .message("Rate exceeded")
+                    .build();
+        }
+        if (errorRoll < errorRate) {
+            throw InternalServerErrorException.builder()
+                    .statusCode(500)
+                    .awsErrorDetails(errorDetails(operation, "InternalServerErrorException"))
+                    .message("Injected failure")
+                    .build();
+        }
+        return action.get();
+    }
+
+    private PolicyVersions registry(final String registryName) {
+        final PolicyVersions versions = registries.get(registryName);
+        if (versions == null) {
+            throw notFound("Registry " + registryName + " does not exist");
+        }
+        return versions;
+    }
+
+    private static NotFoundException notFound(final String message) {
+        return NotFoundException.builder().statusCode(404).message(message).build();
+    }
+
+    private static AwsErrorDetails errorDetails(final String operation, final String errorCode) {
+        return AwsErrorDetails.builder().serviceName(SERVICE_NAME).errorCode(errorCode).errorMessage(operation).build();
+    }
+
+    /**
+     * Source of simulated per-call latency.
+     */
+    interface Latency {
+        long nextMillis(Random random);
+
+        static Latency none() {
+            return random -> 0L;
+        }
+
+        static Latency fixed(final long millis) {
+            return random -> millis;
+        }
+
+        static Latency uniform(final long minMillis, final long maxMillis) {
+            return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis));
+        }
+
+        /**
+         * Log-normal latency, the usual shape of service call latencies: most calls close to the
+         * median with a long tail controlled by {@code sigma}.
+         */
+        static Latency logNormal(final long medianMillis, final double sigma) {
+            return random -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    private static final class PolicyVersion {
+        private final String policy;
+        private final String revisionId;
+        private final long visibleAt;
+
+        private PolicyVersion(final String policy, final String revisionId, final long visibleAt) {
+            this.policy = policy;
+            this.revisionId = revisionId;
+            this.visibleAt = visibleAt;
+        }
+    }
+
+    /**
+     * The latest write to a registry's policy and the version reads return until it propagates.
+     */
+    private static final class PolicyVersions {
+        private volatile PolicyVersion latest;
+        private volatile PolicyVersion previous;
+
+        private PolicyVersion write(final String policy, final String revisionId, final long now, final long visibleAt) {
+            previous = visible(now);
+            latest = new PolicyVersion(policy, revisionId, visibleAt);
+            return latest;
+        }
+
+        private PolicyVersion visible(final long now) {
+            final PolicyVersion current = latest;
+            return current == null || now >= current.visibleAt ? current : previous;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.services.schemas.model.ConflictException;
+import software.amazon.awssdk.services.schemas.model.DeleteResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.DescribeRegistryRequest;
+import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.InternalServerErrorException;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesRequest;
+import software.amazon.awssdk.services.schemas.model.ListRegistriesResponse;
+import software.amazon.awssdk.services.schemas.model.NotFoundException;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
+import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
+import software.amazon.awssdk.services.schemas.model.RegistrySummary;
+import software.amazon.awssdk.services.schemas.model.TooManyRequestsException;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SchemasSimulatorTest {
+
+    private static final String REGISTRY_NAME = "test-registry";
+
+    private final AtomicLong now = new AtomicLong();
+
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
+    @Test
+    public void testRevisionIdChangesOnEveryWrite() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+
+        //WHEN
+        final PutResourcePolicyResponse first = simulator.putResourcePolicy(put("{}", null));
+        final PutResourcePolicyResponse second = simulator.putResourcePolicy(put("{}", first.revisionId()));
+
+        //THEN
+        assertThat(second.revisionId()).isNotEqualTo(first.revisionId());
+        assertThat(simulator.getResourcePolicy(get()).revisionId()).isEqualTo(second.revisionId());
+    }
+
+    @Test
+    public void testStaleRevisionIdConflicts() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        final PutResourcePolicyResponse first = simulator.putResourcePolicy(put("{}", null));
+        simulator.putResourcePolicy(put("{}", first.revisionId()));
+
+        //WHEN
+        assertThrows(ConflictException.class, () ->
+                simulator.putResourcePolicy(put("{}", first.revisionId())));
+    }
+
+    @Test
+    public void testMissingRegistryAndPolicy() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+
+        //THEN
+        assertThrows(NotFoundException.class, () ->
+                simulator.describeRegistry(DescribeRegistryRequest.builder().registryName(REGISTRY_NAME).build()));
+
+        simulator.createRegistry(REGISTRY_NAME);
+        assertThrows(NotFoundException.class, () -> simulator.getResourcePolicy(get()));
+        assertThrows(NotFoundException.class, () ->
+                simulator.deleteResourcePolicy(DeleteResourcePolicyRequest.builder().registryName(REGISTRY_NAME).build()));
+    }
+
+    @Test
+    public void testWritesBecomeVisibleAfterPropagationDelay() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder()
+                .propagationDelayMillis(1_000)
+                .clock(now::get)
+                .build();
+        simulator.createRegistry(REGISTRY_NAME);
+
+        //WHEN
+        final PutResourcePolicyResponse created = simulator.putResourcePolicy(put("{}", null));
+
+        //THEN
+        assertThrows(NotFoundException.class, () -> simulator.getResourcePolicy(get()));
+        now.set(1_000);
+        assertThat(simulator.getResourcePolicy(get()).revisionId()).isEqualTo(created.revisionId());
+
+        simulator.deleteResourcePolicy(DeleteResourcePolicyRequest.builder().registryName(REGISTRY_NAME).build());
+        assertThat(simulator.getResourcePolicy(get()).revisionId()).isEqualTo(created.revisionId());
+        now.set(2_000);
+        assertThrows(NotFoundException.class, () -> simulator.getResourcePolicy(get()));
+    }
+
+    @Test
+    public void testInjectedFaults() {
+        //GIVEN
+        final SchemasSimulator throttled = SchemasSimulator.builder().throttlingRate(1.0).seed(1L).build();
+        final SchemasSimulator failing = SchemasSimulator.builder().errorRate(1.0).seed(1L).build();
+
+        //THEN
+        final TooManyRequestsException throttling = assertThrows(TooManyRequestsException.class, () -> throttled.getResourcePolicy(get()));
+        assertThat(throttling.statusCode()).isEqualTo(429);
+        final InternalServerErrorException error = assertThrows(InternalServerErrorException.class, () -> failing.getResourcePolicy(get()));
+        assertThat(error.statusCode()).isEqualTo(500);
+        assertThat(throttled.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(1);
+    }
+
+    @Test
+    public void testSimulatedLatency() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder()
+                .latency(SchemasSimulator.Latency.fixed(25))
+                .sleeper(now::addAndGet)
+                .build();
+        simulator.createRegistry(REGISTRY_NAME);
+
+        //WHEN
+        simulator.describeRegistry(DescribeRegistryRequest.builder().registryName(REGISTRY_NAME).build());
+
+        //THEN
+        assertThat(now.get()).isEqualTo(25);
+    }
+
+    @Test
+    public void testCreateHandlerAgainstSimulator() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 60_000L);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName(REGISTRY_NAME)
+                .policy(policy())
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = new CreateHandler().handleRequest(proxy, request, null, new LoggerProxy());
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getRevisionId()).isEqualTo("1");
+        assertThat(simulator.callCount(SchemasSimulator.DESCRIBE_REGISTRY)).isEqualTo(1);
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(2);
+        assertThat(simulator.callCount(SchemasSimulator.PUT_RESOURCE_POLICY)).isEqualTo(1);
+    }
+
+    @Test
+    public void testCreateRecoversWhenTimedOutAtEachStep() {
+        // every attempt of the pre-flight, the put or a stabilization poll times out
+        final Map<String, Consumer<SchemasSimulator>> timeouts = new LinkedHashMap<>();
+        timeouts.put("pre-flight", simulator -> simulator.failNext(SchemasSimulator.DESCRIBE_REGISTRY, timedOut()));
+        timeouts.put("put", simulator -> simulator.failNext(SchemasSimulator.PUT_RESOURCE_POLICY, timedOut()));
+        timeouts.put("stabilization", simulator -> {
+            simulator.failNext(SchemasSimulator.GET_RESOURCE_POLICY, notFound());
+            simulator.failNext(SchemasSimulator.GET_RESOURCE_POLICY, timedOut());
+        });
+
+        for (Map.Entry<String, Consumer<SchemasSimulator>> timeout : timeouts.entrySet()) {
+            //GIVEN
+            final SchemasSimulator simulator = SchemasSimulator.builder().build();
+            simulator.createRegistry(REGISTRY_NAME);
+            ClientBuilder.setSchemasClient(simulator);
+            ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+            timeout.getValue().accept(simulator);
+
+            //WHEN
+            final ProgressEvent<ResourceModel, CallbackContext> yielded
+                    = new CreateHandler().handleRequest(proxy(), createRequest(), null, new LoggerProxy());
+            final ProgressEvent<ResourceModel, CallbackContext> resumed
+                    = new CreateHandler().handleRequest(proxy(), createRequest(), yielded.getCallbackContext(), new LoggerProxy());
+
+            //THEN
+            assertThat(yielded.getStatus()).as(timeout.getKey()).isEqualTo(OperationStatus.IN_PROGRESS);
+            assertThat(resumed.getStatus()).as(timeout.getKey()).isEqualTo(OperationStatus.SUCCESS);
+            assertThat(resumed.getResourceModel().getRevisionId()).as(timeout.getKey()).isEqualTo("1");
+            assertThat(simulator.getResourcePolicy(get()).revisionId()).as(timeout.getKey()).isEqualTo("1");
+        }
+    }
+
+    @Test
+    public void testCreateRecoversWhenThePutResponseIsLost() throws Exception {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+        simulator.failNext(SchemasSimulator.PUT_RESOURCE_POLICY, timedOut());
+        final ProgressEvent<ResourceModel, CallbackContext> yielded
+                = new CreateHandler().handleRequest(proxy(), createRequest(), null, new LoggerProxy());
+        // one of the timed out puts went through after all
+        simulator.putResourcePolicy(put(PolicyCodec.write(policy()), null));
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> resumed
+                = new CreateHandler().handleRequest(proxy(), createRequest(), yielded.getCallbackContext(), new LoggerProxy());
+
+        //THEN
+        assertThat(yielded.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(resumed.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(resumed.getResourceModel().getRevisionId()).isEqualTo(simulator.getResourcePolicy(get()).revisionId());
+    }
+
+    @Test
+    public void testCreateWithoutContextFailsOnAnotherPolicy() throws Exception {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        simulator.putResourcePolicy(put("{\"Version\": \"2012-10-17\", \"Statement\": {\"Effect\": \"Allow\", \"Principal\": \"*\", \"Action\": \"schemas:*\"}}", null));
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+
+        //WHEN
+        assertThrows(CfnAlreadyExistsException.class, () ->
+                new CreateHandler().handleRequest(proxy(), createRequest(), null, new LoggerProxy()));
+
+        //THEN
+        assertThat(simulator.callCount(SchemasSimulator.PUT_RESOURCE_POLICY)).isEqualTo(1);
+    }
+
+    @Test
+    public void testCreateYieldsWithoutTimeForAStep() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+        final AmazonWebServicesClientProxy endingProxy = new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"),
+                () -> Deadline.RESERVE_MILLIS + Deadline.MIN_STEP_MILLIS / 2);
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> yielded
+                = new CreateHandler().handleRequest(endingProxy, createRequest(), null, new LoggerProxy());
+        final CallbackContext.Phase yieldedPhase = yielded.getCallbackContext().getPhase();
+        final ProgressEvent<ResourceModel, CallbackContext> resumed
+                = new CreateHandler().handleRequest(proxy(), createRequest(), yielded.getCallbackContext(), new LoggerProxy());
+
+        //THEN
+        assertThat(yielded.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(yieldedPhase).isEqualTo(CallbackContext.Phase.PREFLIGHT);
+        assertThat(resumed.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(simulator.callCount(SchemasSimulator.DESCRIBE_REGISTRY)).isEqualTo(1);
+        assertThat(simulator.callCount(SchemasSimulator.PUT_RESOURCE_POLICY)).isEqualTo(1);
+    }
+
+    @Test
+    public void testListRegistriesPages() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().listPageSize(2).build();
+        simulator.createRegistry("c");
+        simulator.createRegistry("a");
+        simulator.createRegistry("b");
+
+        //WHEN
+        final ListRegistriesResponse first = simulator.listRegistries(ListRegistriesRequest.builder().build());
+        final ListRegistriesResponse second = simulator.listRegistries(ListRegistriesRequest.builder().nextToken(first.nextToken()).build());
+
+        //THEN
+        assertThat(first.registries()).extracting(RegistrySummary::registryName).containsExactly("a", "b");
+        assertThat(second.registries()).extracting(RegistrySummary::registryName).containsExactly("c");
+        assertThat(second.nextToken()).isNull();
+    }
+
+    @Test
+    public void testHandlersRetryServiceErrors() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        simulator.failNext(SchemasSimulator.PUT_RESOURCE_POLICY, internalServerError());
+        simulator.failNext(SchemasSimulator.GET_RESOURCE_POLICY, tooManyRequests());
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .registryName(REGISTRY_NAME)
+                        .policy(policy())
+                        .build())
+                .build();
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response
+                = new CreateHandler().handleRequest(proxy(), request, null, new LoggerProxy());
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(simulator.callCount(SchemasSimulator.PUT_RESOURCE_POLICY)).isEqualTo(2);
+        assertThat(simulator.callCount(SchemasSimulator.GET_RESOURCE_POLICY)).isEqualTo(3);
+    }
+
+    @Test
+    public void testHandlersYieldWhenRetriesRunOut() {
+        //GIVEN
+        final SchemasSimulator simulator = SchemasSimulator.builder().build();
+        simulator.createRegistry(REGISTRY_NAME);
+        simulator.putResourcePolicy(put("{}", null));
+        simulator.failNext(SchemasSimulator.GET_RESOURCE_POLICY,
+                internalServerError(), internalServerError(), internalServerError(),
+                internalServerError(), internalServerError(), internalServerError());
+        ClientBuilder.setSchemasClient(simulator);
+        ClientBuilder.setSchemasAsyncClient(simulator.asyncClient());
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .id(REGISTRY_NAME)
+                        .registryName(REGISTRY_NAME)
+                        .policy(policy())
+                        .build())
+                .build();
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> update
+                = new UpdateHandler().handleRequest(proxy(), request, null, new LoggerProxy());
+        final ProgressEvent<ResourceModel, CallbackContext> read
+                = new ReadHandler().handleRequest(proxy(), request, null, new LoggerProxy());
+        final ProgressEvent<ResourceModel, CallbackContext> retriedUpdate
+                = new UpdateHandler().handleRequest(proxy(), request, update.getCallbackContext(), new LoggerProxy());
+
+        //THEN
+        assertThat(update.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(update.getCallbackDelaySeconds()).isEqualTo(5);
+        assertThat(update.getErrorCode()).isNull();
+        assertThat(read.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(read.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceInternalError);
+        assertThat(retriedUpdate.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(simulator.callCount(SchemasSimulator.PUT_RESOURCE_POLICY)).isEqualTo(2);
+    }
+
+    private static ResourceHandlerRequest<ResourceModel> createRequest() {
+        return ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder()
+                        .registryName(REGISTRY_NAME)
+                        .policy(policy())
+                        .build())
+                .build();
+    }
+
+    private static GetResourcePolicyRequest get() {
+        return GetResourcePolicyRequest.builder().registryName(REGISTRY_NAME).build();
+    }
+
+    private static PutResourcePolicyRequest put(String policy, String revisionId) {
+        return PutResourcePolicyRequest.builder().registryName(REGISTRY_NAME).policy(policy).revisionId(revisionId).build();
+    }
+
+    private static Map<String, Object> policy() {
+        final Map<String, Object> statement = new HashMap<>();
+        statement.put("Effect", "Allow");
+        statement.put("Principal", "*");
+        statement.put("Action", "schemas:DescribeRegistry");
+        final Map<String, Object> policy = new HashMap<>();
+        policy.put("Version", "2012-10-17");
+        policy.put("Statement", statement);
+        return policy;
+    }
+
+    private static AmazonWebServicesClientProxy proxy() {
+        return new AmazonWebServicesClientProxy(
+                new LoggerProxy(), new Credentials("accessKeyId", "secretAccessKey", "sessionToken"), () -> 60_000L);
+    }
+
+    private static InternalServerErrorException internalServerError() {
+        return InternalServerErrorException.builder().statusCode(500).message("Injected failure").build();
+    }
+
+    private static NotFoundException notFound() {
+        return NotFoundException.builder().statusCode(404).message("Policy not found").build();
+    }
+
+    // an API call timeout on every attempt the retry policy allows
+    private static RuntimeException[] timedOut() {
+        final RuntimeException[] errors = new RuntimeException[RetryPolicy.DEFAULT_MAX_ATTEMPTS];
+        Arrays.fill(errors, ApiCallTimeoutException.create(1_000L));
+        return errors;
+    }
+
+    private static TooManyRequestsException tooManyRequests() {
+        return TooManyRequestsException.builder().statusCode(429).message("Rate exceeded").build();
+    }
+}
@@ -0,0 +1,24 @@
+package software.amazon.eventschemas.registrypolicy;
+
+/**
+ * The container-wide state {@link ClientBuilder} holds for the handlers, which tests replace or
+ * fill and must not leak into the next test.
+ */
+final class SharedState {
+
+    private SharedState() {
+    }
+
+    /**
+     * Resets the shared clients, rate limiter, registry cache, execution mode and propagation
+     * estimator, so they are built again on next use.
+     */
+    static void reset() {
+        ClientBuilder.setSchemasClient(null);
+        ClientBuilder.setSchemasAsyncClient(null);
+        ClientBuilder.setRateLimiter(null);
+        ClientBuilder.setRegistryCache(null);
+        ClientBuilder.setExecutionMode(null);
+        ClientBuilder.setPropagationEstimator(null);
+    }
+}
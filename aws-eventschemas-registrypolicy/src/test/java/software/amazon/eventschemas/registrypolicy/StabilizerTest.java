@@ -0,0 +1,110 @@
+package software.amazon.eventschemas.registrypolicy;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StabilizerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private Stabilizer stabilizer(long budgetMillis) {
+        return Stabilizer.builder()
+                .budgetMillis(budgetMillis)
+                .initialDelayMillis(100)
+                .maxDelayMillis(400)
+                .sleeper(now::addAndGet)
+                .clock(now::get)
+                .build();
+    }
+
+    @Test
+    public void testStabilizedOnFirstPoll() {
+        //WHEN
+        final StabilizationResult result = stabilizer(1_000).stabilize(() -> true);
+
+        //THEN
+        assertThat(result.isStabilized()).isTrue();
+        assertThat(result.getAttempts()).isEqualTo(1);
+        assertThat(result.getWaitedMillis()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStabilizedAfterBackoff() {
+        //GIVEN
+        final AtomicInteger polls = new AtomicInteger();
+
+        //WHEN
+        final StabilizationResult result = stabilizer(10_000).stabilize(() -> polls.incrementAndGet() == 3);
+
+        //THEN
+        assertThat(result.isStabilized()).isTrue();
+        assertThat(result.getAttempts()).isEqualTo(3);
+        assertThat(result.getWaitedMillis()).isBetween(50L + 100L, 100L + 200L);
+        assertThat(result.getWaitedMillis()).isEqualTo(now.get());
+    }
+
+    @Test
+    public void testBudgetExhausted() {
+        //WHEN
+        final StabilizationResult result = stabilizer(2_000).stabilize(() -> false);
+
+        //THEN
+        assertThat(result.isStabilized()).isFalse();
+        assertThat(result.getAttempts()).isGreaterThan(1);
+        assertThat(result.getWaitedMillis()).isLessThanOrEqualTo(2_000L);
+    }
+
+    @Test
+    public void testZeroBudgetPollsOnce() {
+        //WHEN
+        final StabilizationResult result = stabilizer(0).stabilize(() -> false);
+
+        //THEN
+        assertThat(result.isStabilized()).isFalse();
+        assertThat(result.getAttempts()).isEqualTo(1);
+        assertThat(result.getWaitedMillis()).isEqualTo(0);
+    }
+
+    @Test
+    public void testDeadlineCapsBudget() {
+        //GIVEN
+        now.set(10_000);
+
+        //WHEN
+        final StabilizationResult result = stabilizer(60_000).stabilize(() -> false, 10_500);
+
+        //THEN
+        assertThat(result.isStabilized()).isFalse();
+        assertThat(now.get()).isLessThanOrEqualTo(10_500L);
+    }
+
+    @Test
+    public void testExpiredOnceTheClockReachesTheDeadline() {
+        //GIVEN
+        final Stabilizer stabilizer = stabilizer(1_000);
+        now.set(10_000);
+
+        //THEN
+        assertThat(stabilizer.isExpired(10_001)).isFalse();
+        assertThat(stabilizer.isExpired(10_000)).isTrue();
+        assertThat(stabilizer.isExpired(9_999)).isTrue();
+    }
+
+    @Test
+    public void testPastDeadlinePollsOnce() {
+        //GIVEN
+        now.set(10_000);
+
+        //WHEN
+        final StabilizationResult result = stabilizer(60_000).stabilize(() -> false, 5_000);
+
+        //THEN
+        assertThat(result.isStabilized()).isFalse();
+        assertThat(result.getAttempts()).isEqualTo(1);
+        assertThat(now.get()).isEqualTo(10_000L);
+    }
+}
@@ -1,5 +1,12 @@
 package software.amazon.eventschemas.registrypolicy;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyResponse;
 import software.amazon.awssdk.services.schemas.model.PutResourcePolicyRequest;
 import software.amazon.awssdk.services.schemas.model.GetResourcePolicyRequest;
@@ -11,10 +18,12 @@ import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
 import software.amazon.cloudformation.exceptions.CfnNotFoundException;
 import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,15 +33,24 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 
 @ExtendWith(MockitoExtension.class)
 
 public class UpdateHandlerTest {
 
+    // stands in for the remaining time of the mocked proxy
+    private static final Deadline.Factory DEADLINES =
+            proxy -> new Deadline(60_000L, ClientOverrideConfiguration.builder().build(), System::currentTimeMillis);
+
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
@@ -45,10 +63,15 @@ public class UpdateHandlerTest {
         logger = mock(Logger.class);
     }
 
+    @AfterEach
+    public void tearDown() {
+        SharedState.reset();
+    }
+
     @Test
     public void testSuccessState() {
         //GIVEN
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -90,7 +113,7 @@ public class UpdateHandlerTest {
     @Test
     public void testInProgressState() {
         //GIVEN
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().budgetMillis(0).build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -100,9 +123,9 @@ public class UpdateHandlerTest {
         PutResourcePolicyResponse putResourcePolicyResponse = PutResourcePolicyResponse.builder()
                 .build();
         final CallbackContext outputContext = CallbackContext.builder()
-                .registryPolicyUpdated(true)
-                .registryPolicyStabilized(false)
-                .stabilizationRetriesRemaining(2)
+                .phase(CallbackContext.Phase.STABILIZE)
+                .attempts(1)
+                .polls(1)
                 .build();
 
         // Mock
@@ -119,7 +142,8 @@ public class UpdateHandlerTest {
         //THEN
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        assertThat(response.getCallbackContext()).isEqualTo(outputContext);
+        assertThat(response.getCallbackContext()).isEqualToIgnoringGivenFields(outputContext, "phaseStartedAt");
+        assertThat(response.getCallbackContext().getPhaseStartedAt()).isGreaterThan(0L);
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(30);
         assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
         assertThat(response.getResourceModels()).isNull();
@@ -127,10 +151,40 @@ public class UpdateHandlerTest {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void testPhaseStartsByTheStabilizerClock() {
+        //GIVEN
+        // the clock the stabilization timeout is checked against
+        final Stabilizer stabilizer = Stabilizer.builder().budgetMillis(0).clock(() -> 42_000L).build();
+        final UpdateHandler handler = new UpdateHandler(stabilizer, DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        // Mock
+        doReturn(GetResourcePolicyResponse.builder().revisionId("1").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+        doReturn(PutResourcePolicyResponse.builder().revisionId("2").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackContext().getPhase()).isEqualTo(CallbackContext.Phase.STABILIZE);
+        assertThat(response.getCallbackContext().getPhaseStartedAt()).isEqualTo(42_000L);
+    }
+
     @Test
     public void testNotFoundException() {
         //GIVEN
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -151,7 +205,7 @@ public class UpdateHandlerTest {
     @Test
     public void testConflictException() {
         //GIVEN
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -175,7 +229,7 @@ public class UpdateHandlerTest {
     @Test
     public void testSchemasException() {
         //GIVEN
-        final UpdateHandler handler = new UpdateHandler();
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
         final ResourceModel model = ResourceModel.builder()
                 .registryName("test-registry")
                 .build();
@@ -196,4 +250,239 @@ public class UpdateHandlerTest {
                 handler.handleRequest(proxy, request, null, logger));
     }
 
+    @Test
+    public void testStabilizationTimeoutFails() {
+        //GIVEN
+        // ten minutes into a phase that times out after five
+        final Stabilizer stabilizer = Stabilizer.builder().clock(() -> 10 * 60 * 1000L).build();
+        final UpdateHandler handler = new UpdateHandler(stabilizer, DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .revisionId("2")
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("2")
+                .phaseStartedAt(0L)
+                .build();
+
+        // Mock
+        doReturn(GetResourcePolicyResponse.builder().revisionId("1").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+    }
+
+    @Test
+    public void testResumedStabilizationReturnsThePolicyDigest() throws IOException {
+        //GIVEN
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(policy("2012-10-17"))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.STABILIZE)
+                .revisionId("2")
+                .phaseStartedAt(System.currentTimeMillis())
+                .build();
+
+        // Mock
+        doReturn(GetResourcePolicyResponse.builder().revisionId("2").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getRevisionId()).isEqualTo("2");
+        assertThat(response.getResourceModel().getPolicyDigest()).isEqualTo(PolicyCanonicalizer.digest(policy("2012-10-17")));
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+    }
+
+    @Test
+    public void testUnknownPhaseFails() {
+        //GIVEN
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().registryName("test-registry").build())
+                .build();
+        // only Create has a pre-flight
+        final CallbackContext inputContext = CallbackContext.builder()
+                .phase(CallbackContext.Phase.PREFLIGHT)
+                .build();
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, inputContext, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.InternalFailure);
+        verifyZeroInteractions(proxy);
+    }
+
+    @Test
+    public void testUnchangedPolicySkipsUpdate() throws IOException {
+        //GIVEN
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
+        final Map<String, Object> statement = new HashMap<>();
+        statement.put("Effect", "Allow");
+        statement.put("Principal", "*");
+        statement.put("Action", Arrays.asList("schemas:GetResourcePolicy", "schemas:DescribeRegistry"));
+        final Map<String, Object> policy = new HashMap<>();
+        policy.put("Version", "2012-10-17");
+        policy.put("Statement", Collections.singletonList(statement));
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(policy)
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        GetResourcePolicyResponse getResourcePolicyResponse = GetResourcePolicyResponse.builder()
+                .policy("{\"Statement\":{\"Action\":[\"schemas:DescribeRegistry\",\"schemas:GetResourcePolicy\"],\"Effect\":\"Allow\",\"Principal\":\"*\"},\"Version\":\"2012-10-17\"}")
+                .revisionId("7")
+                .build();
+
+        // Mock
+        doReturn(getResourcePolicyResponse)
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getRevisionId()).isEqualTo("7");
+        assertThat(response.getResourceModel().getPolicyDigest()).isEqualTo(PolicyCanonicalizer.digest(policy));
+        verify(proxy, never()).injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+    }
+
+    @Test
+    public void testOptimisticUpdateSkipsRead() {
+        //GIVEN
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel previousModel = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .policy(policy("2012-10-17"))
+                .revisionId("1")
+                .build();
+        final ResourceModel model = ResourceModel.builder()
+                .id("test-registry")
+                .registryName("test-registry")
+                .policy(policy("2008-10-17"))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+
+        // Mock
+        doReturn(PutResourcePolicyResponse.builder().revisionId("2").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(argThat((PutResourcePolicyRequest r) -> "1".equals(r.revisionId())), any());
+        doReturn(GetResourcePolicyResponse.builder().revisionId("2").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getRevisionId()).isEqualTo("2");
+        // the only read is the stabilization check
+        verify(proxy, times(1)).injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+    }
+
+    @Test
+    public void testOptimisticUpdateConflictRefreshesOnce() {
+        //GIVEN
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceModel previousModel = ResourceModel.builder()
+                .registryName("test-registry")
+                .revisionId("1")
+                .build();
+        final ResourceModel model = ResourceModel.builder()
+                .registryName("test-registry")
+                .policy(policy("2012-10-17"))
+                .build();
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .previousResourceState(previousModel)
+                .build();
+
+        // Mock
+        doThrow(ConflictException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(argThat((PutResourcePolicyRequest r) -> "1".equals(r.revisionId())), any());
+        doReturn(PutResourcePolicyResponse.builder().revisionId("4").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(argThat((PutResourcePolicyRequest r) -> "3".equals(r.revisionId())), any());
+        doReturn(GetResourcePolicyResponse.builder().policy("{}").revisionId("3").build())
+                .doReturn(GetResourcePolicyResponse.builder().revisionId("4").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+
+        //WHEN
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, null, logger);
+
+        //THEN
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getRevisionId()).isEqualTo("4");
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+    }
+
+    @Test
+    public void testConflictAfterRefreshFails() {
+        //GIVEN
+        final UpdateHandler handler = new UpdateHandler(Stabilizer.builder().build(), DEADLINES);
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(ResourceModel.builder().registryName("test-registry").build())
+                .previousResourceState(ResourceModel.builder().registryName("test-registry").revisionId("1").build())
+                .build();
+
+        // Mock
+        doReturn(GetResourcePolicyResponse.builder().policy("{}").revisionId("3").build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(GetResourcePolicyRequest.class), any());
+        doThrow(ConflictException.builder().build())
+                .when(proxy)
+                .injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+
+        //WHEN
+        assertThrows(CfnResourceConflictException.class, () ->
+                handler.handleRequest(proxy, request, null, logger));
+        verify(proxy, times(2)).injectCredentialsAndInvokeV2(any(PutResourcePolicyRequest.class), any());
+    }
+
+    private static Map<String, Object> policy(String version) {
+        final Map<String, Object> statement = new HashMap<>();
+        statement.put("Effect", "Allow");
+        statement.put("Principal", "*");
+        statement.put("Action", "schemas:DescribeRegistry");
+        final Map<String, Object> policy = new HashMap<>();
+        policy.put("Version", version);
+        policy.put("Statement", statement);
+        return policy;
+    }
 }